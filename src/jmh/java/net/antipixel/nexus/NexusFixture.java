@@ -0,0 +1,158 @@
+package net.antipixel.nexus;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import net.antipixel.nexus.definition.DefinitionLoader;
+import net.antipixel.nexus.definition.RegionDefinition;
+import net.antipixel.nexus.definition.TeleportDefinition;
+import net.runelite.api.Client;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.widgets.WidgetType;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.config.ConfigManager;
+import net.runelite.client.eventbus.EventBus;
+import net.runelite.client.ui.overlay.OverlayManager;
+import org.mockito.Mockito;
+
+/**
+ * Assembles the plugin with in-memory stand-ins for the client, client thread,
+ * config, overlay manager and scheduled executor, and a Nexus interface populated with teleports
+ * @author Antipixel
+ */
+public class NexusFixture
+{
+	static final int GROUP_NEXUS_PORTAL = 17;
+	static final int ID_PORTAL_WINDOW = 0x110001;
+	static final int ID_LOC_LABELS_PRIMARY = 0x11000C;
+	static final int ID_LOC_LABELS_ALTERNATE = 0x110010;
+
+	private static final String SHORTCUT_KEYS = "123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+	private static final String LABEL_FORMAT = "<col=ffffff>%s</col> :  %s";
+
+	private final FakeClient fakeClient;
+	private final NexusMapPlugin plugin;
+	private final TeleportCache teleportCache;
+	private final WidgetLoaded loadedEvent;
+	private final EventBus eventBus;
+
+	/**
+	 * Creates the plugin and starts it up
+	 * @throws Exception if the plugin fails to start
+	 */
+	public NexusFixture() throws Exception
+	{
+		this.fakeClient = new FakeClient();
+		this.eventBus = new EventBus();
+
+		ConfigManager configManager = new FakeConfigManager().getConfigManager();
+
+		Injector injector = Guice.createInjector(binder ->
+		{
+			binder.bind(Client.class).toInstance(this.fakeClient.getClient());
+			binder.bind(ClientThread.class).toInstance(new ImmediateClientThread());
+			binder.bind(ConfigManager.class).toInstance(configManager);
+			binder.bind(EventBus.class).toInstance(this.eventBus);
+			binder.bind(NexusConfig.class).toInstance(new NexusConfig() {});
+			binder.bind(OverlayManager.class).toInstance(Mockito.mock(OverlayManager.class));
+			binder.bind(ScheduledExecutorService.class).toInstance(Executors.newSingleThreadScheduledExecutor(runnable ->
+			{
+				Thread thread = new Thread(runnable, "nexus-fixture-executor");
+				thread.setDaemon(true);
+				return thread;
+			}));
+		});
+
+		this.plugin = injector.getInstance(NexusMapPlugin.class);
+		this.teleportCache = injector.getInstance(TeleportCache.class);
+		this.plugin.startUp();
+
+		// Wait for the definitions to load in the background
+		this.plugin.getReadyFuture().get();
+
+		this.loadedEvent = new WidgetLoaded();
+		this.loadedEvent.setGroupId(GROUP_NEXUS_PORTAL);
+
+		this.populateTeleportLabels();
+	}
+
+	/**
+	 * Gets the plugin
+	 * @return the started plugin
+	 */
+	public NexusMapPlugin getPlugin()
+	{
+		return this.plugin;
+	}
+
+	/**
+	 * Gets the cache of the teleports read from the labels, shared with the plugin
+	 * @return the teleport cache
+	 */
+	public TeleportCache getTeleportCache()
+	{
+		return this.teleportCache;
+	}
+
+	/**
+	 * Gets the event bus, with which the plugin registers its listeners
+	 * @return the event bus
+	 */
+	public EventBus getEventBus()
+	{
+		return this.eventBus;
+	}
+
+	/**
+	 * Gets the fake client
+	 * @return the client
+	 */
+	public FakeClient getFakeClient()
+	{
+		return this.fakeClient;
+	}
+
+	/**
+	 * Opens the Nexus interface, removing the widgets created by the
+	 * plugin upon the previous opening as the client would do
+	 */
+	public void openInterface()
+	{
+		FakeWidget.of(this.fakeClient.getWidget(ID_PORTAL_WINDOW)).clearChildren();
+		this.plugin.onWidgetLoaded(this.loadedEvent);
+	}
+
+	/**
+	 * Fills the label lists with most of the defined teleports, leaving
+	 * some out so that the map has both available and unavailable teleports,
+	 * and placing some in the alternate list
+	 * @throws Exception if the definitions can't be loaded
+	 */
+	private void populateTeleportLabels() throws Exception
+	{
+		FakeWidget primary = FakeWidget.of(this.fakeClient.getWidget(ID_LOC_LABELS_PRIMARY));
+		FakeWidget alternate = FakeWidget.of(this.fakeClient.getWidget(ID_LOC_LABELS_ALTERNATE));
+
+		int teleportIndex = 0;
+
+		for (RegionDefinition regionDef : DefinitionLoader.loadRegions("RegionDef.bin"))
+		{
+			for (TeleportDefinition teleportDef : regionDef.getTeleports())
+			{
+				// Leave every fifth teleport out of the portal
+				if (teleportIndex % 5 != 4)
+				{
+					String key = String.valueOf(SHORTCUT_KEYS.charAt(teleportIndex % SHORTCUT_KEYS.length()));
+					String label = String.format(LABEL_FORMAT, key, teleportDef.getName());
+
+					// Every fourth teleport is an alternate
+					FakeWidget parent = (teleportIndex % 4 == 3) ? alternate : primary;
+					parent.addChild(WidgetType.TEXT, label);
+				}
+
+				teleportIndex++;
+			}
+		}
+	}
+}
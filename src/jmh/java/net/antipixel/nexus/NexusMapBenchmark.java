@@ -0,0 +1,87 @@
+package net.antipixel.nexus;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for opening the Nexus menu and navigating between its pages.
+ * Run with the gc profiler, as the jmh task does, to report the allocation
+ * per operation alongside the average time
+ * @author Antipixel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NexusMapBenchmark
+{
+	/* The region with the most teleports defined */
+	private static final int REGION_KANDARIN = 6;
+
+	private NexusFixture fixture;
+	private NexusMapPlugin plugin;
+
+	@Setup
+	public void setUp() throws Exception
+	{
+		this.fixture = new NexusFixture();
+		this.plugin = this.fixture.getPlugin();
+
+		// Open the menu once, so the components have been created,
+		// and visit the region so that its map page has been created
+		this.fixture.openInterface();
+		this.plugin.displayMapPage(REGION_KANDARIN);
+		this.plugin.displayIndexPage();
+	}
+
+	@Benchmark
+	public void openInterface()
+	{
+		this.fixture.openInterface();
+	}
+
+	@Benchmark
+	public void buildAvailableTeleportList()
+	{
+		// Forget the teleports read upon the previous call, so the labels are parsed
+		this.fixture.getTeleportCache().invalidate();
+		this.plugin.buildAvailableTeleportList();
+	}
+
+	@Benchmark
+	public void buildAvailableTeleportListCached()
+	{
+		// The labels are unchanged, so only their fingerprint is computed
+		this.plugin.buildAvailableTeleportList();
+	}
+
+	@Benchmark
+	public void createMapPage()
+	{
+		this.plugin.createMapPage(REGION_KANDARIN);
+	}
+
+	@Benchmark
+	public void updateTeleportButtons()
+	{
+		this.plugin.updateTeleportButtons(REGION_KANDARIN);
+	}
+
+	@Benchmark
+	public void switchPages()
+	{
+		this.plugin.displayMapPage(REGION_KANDARIN);
+		this.plugin.displayIndexPage();
+	}
+}
@@ -0,0 +1,162 @@
+package net.antipixel.nexus;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.client.config.ConfigManager;
+
+/**
+ * Holds a snapshot of the plugin config, which is refreshed upon the config
+ * changing rather than being read through the config manager upon each use.
+ * Changes to the display mode are applied to the snapshot straight away, but
+ * are written to the config manager, which persists them to disk, later on a
+ * background thread. Any further changes made before the write takes place are
+ * coalesced into it, and changes which leave the value as it was aren't written
+ * @author Antipixel
+ */
+@Singleton
+public class ConfigCache
+{
+	/* Config group and key of the display mode state */
+	static final String CFG_GROUP = "nexusMapCFG";
+	static final String CFG_KEY_STATE = "prevState";
+
+	/* Config group of the config options */
+	static final String CFG_GROUP_OPTIONS = "nexusmenu";
+
+	/* Delay before writing the display mode, during which further changes are coalesced */
+	private static final long WRITE_DELAY_MS = 500;
+
+	private final NexusConfig config;
+	private final ConfigManager configManager;
+	private final ScheduledExecutorService executor;
+
+	private volatile ConfigSnapshot snapshot;
+
+	/* The display mode yet to be written, or null if there's nothing to write */
+	private Boolean pendingMapState;
+	private boolean writeScheduled;
+
+	@Inject
+	public ConfigCache(NexusConfig config, ConfigManager configManager, ScheduledExecutorService executor)
+	{
+		this.config = config;
+		this.configManager = configManager;
+		this.executor = executor;
+	}
+
+	/**
+	 * Gets the most recent snapshot of the config
+	 * @return the config snapshot
+	 */
+	public ConfigSnapshot getSnapshot()
+	{
+		return this.snapshot;
+	}
+
+	/**
+	 * Checks if the given config key is one which is held by the snapshot
+	 * @param group the config group
+	 * @param key the config key
+	 * @return true if the key is held by the snapshot, otherwise false
+	 */
+	public boolean isCachedKey(String group, String key)
+	{
+		return CFG_GROUP_OPTIONS.equals(group) || this.isStateKey(group, key);
+	}
+
+	/**
+	 * Checks if the given config key is the display mode the menu was last in,
+	 * which is written by the cache itself rather than through the config panel
+	 * @param group the config group
+	 * @param key the config key
+	 * @return true if the key is the display mode state, otherwise false
+	 */
+	public boolean isStateKey(String group, String key)
+	{
+		return CFG_GROUP.equals(group) && CFG_KEY_STATE.equals(key);
+	}
+
+	/**
+	 * Takes a new snapshot of the config. A display mode which has yet
+	 * to be written takes precedence over the value held by the config
+	 */
+	public synchronized void refresh()
+	{
+		boolean previousMapState = (this.pendingMapState != null)
+			? this.pendingMapState : this.readPreviousMapState();
+
+		this.snapshot = new ConfigSnapshot(this.config.displayShortcuts(),
+			this.config.initialMode(), previousMapState, this.config.compositeMaps(),
+			this.config.phaseTimings(), this.config.allocationTracking());
+	}
+
+	/**
+	 * Sets the display mode the menu was last in. The snapshot is updated
+	 * immediately, and the value is written to the config in the background
+	 * @param mapState true for map mode, false for the standard menu
+	 */
+	public void setPreviousMapState(boolean mapState)
+	{
+		synchronized (this)
+		{
+			// Skip the write if the value hasn't changed
+			if (this.snapshot.isPreviousMapState() == mapState)
+				return;
+
+			this.snapshot = this.snapshot.withPreviousMapState(mapState);
+			this.pendingMapState = mapState;
+
+			// A write has already been scheduled, which will pick up this value
+			if (this.writeScheduled)
+				return;
+
+			this.writeScheduled = true;
+		}
+
+		this.executor.schedule(this::flush, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Writes the display mode to the config, if there's a change yet to be written.
+	 * Called on the background thread, and upon shut down so no change is lost
+	 */
+	public void flush()
+	{
+		Boolean mapState;
+
+		synchronized (this)
+		{
+			mapState = this.pendingMapState;
+			this.writeScheduled = false;
+		}
+
+		if (mapState == null)
+			return;
+
+		// The value may have been changed back since it was scheduled
+		if (mapState != this.readPreviousMapState())
+			this.configManager.setConfiguration(CFG_GROUP, CFG_KEY_STATE, mapState);
+
+		synchronized (this)
+		{
+			// Only clear the pending value if it wasn't changed again during the write
+			if (mapState.equals(this.pendingMapState))
+				this.pendingMapState = null;
+		}
+	}
+
+	/**
+	 * Reads the display mode the menu was last in from the config manager
+	 * @return true if the last used mode was the map mode, false if it was
+	 * in the default nexus menu mode or is yet to be defined
+	 */
+	private boolean readPreviousMapState()
+	{
+		Boolean mode = this.configManager.getConfiguration(CFG_GROUP, CFG_KEY_STATE, Boolean.class);
+
+		// If the mode has yet to be defined, return false
+		return mode != null && mode;
+	}
+}
@@ -0,0 +1,107 @@
+package net.antipixel.nexus;
+
+/**
+ * An immutable copy of the config options read by the plugin, along with
+ * the display mode the menu was last in. A new snapshot is taken whenever
+ * the config changes, so the options can be read freely on the client thread
+ * @author Antipixel
+ */
+public class ConfigSnapshot
+{
+	private final boolean displayShortcuts;
+	private final DisplayMode initialMode;
+	private final boolean previousMapState;
+	private final boolean compositeMaps;
+	private final boolean phaseTimings;
+	private final boolean allocationTracking;
+
+	/**
+	 * Creates a new config snapshot
+	 * @param displayShortcuts true if the shortcut keys are to be displayed
+	 * @param initialMode the menu to display upon opening the Nexus menu
+	 * @param previousMapState true if the menu was last in map mode
+	 * @param compositeMaps true if the region maps are drawn as composited sprites
+	 * @param phaseTimings true if the phases of the plugin's work are timed
+	 * @param allocationTracking true if the allocations of the plugin's event handlers are accounted for
+	 */
+	public ConfigSnapshot(boolean displayShortcuts, DisplayMode initialMode, boolean previousMapState,
+		boolean compositeMaps, boolean phaseTimings, boolean allocationTracking)
+	{
+		this.displayShortcuts = displayShortcuts;
+		this.initialMode = initialMode;
+		this.previousMapState = previousMapState;
+		this.compositeMaps = compositeMaps;
+		this.phaseTimings = phaseTimings;
+		this.allocationTracking = allocationTracking;
+	}
+
+	/**
+	 * Checks whether the shortcut keys are to be displayed
+	 * in the right-click menu of each teleport
+	 * @return true if the shortcuts are displayed, otherwise false
+	 */
+	public boolean isDisplayShortcuts()
+	{
+		return this.displayShortcuts;
+	}
+
+	/**
+	 * Gets the menu to be displayed upon opening the Nexus menu
+	 * @return the initial display mode
+	 */
+	public DisplayMode getInitialMode()
+	{
+		return this.initialMode;
+	}
+
+	/**
+	 * Checks whether the menu was last in map mode
+	 * @return true if the last used mode was the map mode, false
+	 * if it was in the default nexus menu mode
+	 */
+	public boolean isPreviousMapState()
+	{
+		return this.previousMapState;
+	}
+
+	/**
+	 * Checks whether each region map is drawn, along with its
+	 * teleport icons, as a single composited sprite
+	 * @return true if the maps are composited, otherwise false
+	 */
+	public boolean isCompositeMaps()
+	{
+		return this.compositeMaps;
+	}
+
+	/**
+	 * Checks whether the phases of the plugin's work are
+	 * timed, and their timings displayed in an overlay
+	 * @return true if the phases are timed, otherwise false
+	 */
+	public boolean isPhaseTimings()
+	{
+		return this.phaseTimings;
+	}
+
+	/**
+	 * Checks whether the bytes allocated by each invocation of the
+	 * plugin's event handlers are accounted for, and displayed in an overlay
+	 * @return true if the allocations are accounted for, otherwise false
+	 */
+	public boolean isAllocationTracking()
+	{
+		return this.allocationTracking;
+	}
+
+	/**
+	 * Creates a copy of this snapshot with a different previous display mode
+	 * @param previousMapState true if the menu was last in map mode
+	 * @return the new snapshot
+	 */
+	public ConfigSnapshot withPreviousMapState(boolean previousMapState)
+	{
+		return new ConfigSnapshot(this.displayShortcuts, this.initialMode, previousMapState,
+			this.compositeMaps, this.phaseTimings, this.allocationTracking);
+	}
+}
@@ -33,4 +33,37 @@ public interface NexusConfig extends Config
 	{
 		return DisplayMode.NEXUS_MAP;
 	}
+
+	@ConfigItem(
+		keyName = "compositeMaps",
+		name = "Composite maps",
+		description = "Draws each region map and its teleport icons as a single image, rather than an image per teleport",
+		position = 2
+	)
+	default boolean compositeMaps()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "phaseTimings",
+		name = "Show timings",
+		description = "Displays an overlay of the time taken by each phase of building and navigating the menu, for diagnosing slowdowns",
+		position = 3
+	)
+	default boolean phaseTimings()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "allocationTracking",
+		name = "Show allocations",
+		description = "Displays an overlay of the memory allocated by each invocation of the plugin's event handlers, for diagnosing garbage collection pauses",
+		position = 4
+	)
+	default boolean allocationTracking()
+	{
+		return false;
+	}
 }
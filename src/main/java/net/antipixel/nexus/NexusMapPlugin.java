@@ -1,46 +1,80 @@
 package net.antipixel.nexus;
 
-import com.google.gson.Gson;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Provides;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import javax.inject.Inject;
-import net.antipixel.nexus.definition.IconDefinition;
+import lombok.extern.slf4j.Slf4j;
+import net.antipixel.nexus.definition.DefinitionLoader;
 import net.antipixel.nexus.definition.RegionDefinition;
 import net.antipixel.nexus.definition.TeleportDefinition;
+import net.antipixel.nexus.diagnostics.AllocationMeter;
+import net.antipixel.nexus.diagnostics.FlightRecording;
+import net.antipixel.nexus.diagnostics.Handler;
+import net.antipixel.nexus.diagnostics.MenuLoadEvent;
+import net.antipixel.nexus.diagnostics.NexusDiagnosticsOverlay;
+import net.antipixel.nexus.diagnostics.PageDisplayEvent;
+import net.antipixel.nexus.diagnostics.Phase;
+import net.antipixel.nexus.diagnostics.PhaseTimer;
+import net.antipixel.nexus.diagnostics.StartUpEvent;
+import net.antipixel.nexus.diagnostics.TeleportDispatchEvent;
+import net.antipixel.nexus.diagnostics.TeleportLatencyTracker;
+import net.antipixel.nexus.diagnostics.TeleportPath;
+import net.antipixel.nexus.model.PageModel;
+import net.antipixel.nexus.model.RegionModel;
+import net.antipixel.nexus.model.TeleportModel;
+import net.antipixel.nexus.sprites.MapCompositor;
 import net.antipixel.nexus.sprites.SpriteDefinition;
+import net.antipixel.nexus.sprites.SpriteLoader;
+import net.antipixel.nexus.ui.EventHub;
+import net.antipixel.nexus.ui.MenuAction;
+import net.antipixel.nexus.ui.PageReconciler;
+import net.antipixel.nexus.ui.TweenEngine;
 import net.antipixel.nexus.ui.UIButton;
 import net.antipixel.nexus.ui.UICheckBox;
 import net.antipixel.nexus.ui.UIComponent;
 import net.antipixel.nexus.ui.UIFadeButton;
 import net.antipixel.nexus.ui.UIGraphic;
+import net.antipixel.nexus.ui.UIHitLayer;
 import net.antipixel.nexus.ui.UIPage;
 import net.runelite.api.Client;
 import net.runelite.api.SoundEffectID;
 import net.runelite.api.SpriteID;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.GameTick;
 import net.runelite.api.events.MenuOptionClicked;
 import net.runelite.api.events.VarbitChanged;
+import net.runelite.api.events.WidgetClosed;
 import net.runelite.api.events.WidgetLoaded;
 import net.runelite.api.widgets.Widget;
-import net.runelite.api.widgets.WidgetType;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
+import net.runelite.client.eventbus.EventBus;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.game.SpriteManager;
+import net.runelite.client.input.KeyListener;
+import net.runelite.client.input.KeyManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
+import net.runelite.client.ui.overlay.OverlayManager;
 
 @PluginDescriptor(
         name = "Nexus Menu Map",
         description = "Replaces the player owned house teleport Nexus menu",
         tags = {"poh", "portal", "teleport", "nexus"}
 )
+@Slf4j
 public class NexusMapPlugin extends Plugin
 {
 	/* Packed Widget IDs */
@@ -70,11 +104,33 @@ public class NexusMapPlugin extends Plugin
 	private static final int MAP_ICON_WIDTH = 50;
 	private static final int MAP_ICON_HEIGHT = 41;
 
+	/* Animation of the region graphics as the mouse enters and leaves their icons */
+	private static final int HOVER_ANIMATION_MILLIS = 120;
+	private static final int TWEEN_CAPACITY = 32;
+
 	/* Script, Sprite IDs */
 	private static final int SCRIPT_TRIGGER_KEY = 1437;
 	private static final int REGION_MAP_MAIN = 2721;
 	private static final int VARBIT_NEXUS_MODE = 6671;
 
+	/* Placeholders in the arguments of a widget's listener, which the client
+	   substitutes with the details of the event upon running the script */
+	private static final int EVENT_MOUSE_X = -2147483647;
+	private static final int EVENT_MOUSE_Y = -2147483646;
+	private static final int EVENT_WIDGET_ID = -2147483645;
+	private static final int EVENT_OP = -2147483644;
+	private static final int EVENT_WIDGET_INDEX = -2147483643;
+
+	/* Values of the Nexus mode varbit */
+	private static final int MODE_TELEPORT = 0;
+	private static final int MODE_SCRY = 1;
+
+	/* Game ticks within which the menu must be reloaded after switching modes */
+	private static final int MODE_SWITCH_TIMEOUT_TICKS = 2;
+
+	/* The shortcut keys while no teleports are available */
+	private static final char[] NO_SHORTCUT_KEYS = new char[0];
+
 	/* Menu actions */
 	private static final String ACTION_TEXT_TELE = "Teleport";
 	private static final String ACTION_TEXT_SCRY = "Scry";
@@ -82,15 +138,9 @@ public class NexusMapPlugin extends Plugin
 	private static final String ACTION_TEXT_BACK = "Back";
 	private static final String NAME_TEXT_TOGGLE = "Map Mode";
 
-	/* Configuration Group & Keys */
-	private static final String CFG_GROUP = "nexusMapCFG";
-	private static final String CFG_KEY_STATE = "prevState";
-
-	/* Definition JSON files */
-	private static final String DEF_FILE_REGIONS = "RegionDef.json";
-	private static final String DEF_FILE_SPRITES = "SpriteDef.json";
-
-	private static final String TELE_NAME_PATTERN = "<col=ffffff>(\\S)</col> :  (.+)";
+	/* Definition tables, compiled from the JSON definition files at build time */
+	private static final String DEF_FILE_REGIONS = "RegionDef.bin";
+	private static final String DEF_FILE_SPRITES = "SpriteDef.bin";
 
 	@Inject
 	private Client client;
@@ -99,41 +149,202 @@ public class NexusMapPlugin extends Plugin
 	private ClientThread clientThread;
 
 	@Inject
-	private NexusConfig config;
+	private ConfigCache configCache;
 
 	@Inject
-	private ConfigManager configManager;
+	private TeleportCache teleportCache;
 
 	@Inject
 	private SpriteManager spriteManager;
 
+	@Inject
+	private EventBus eventBus;
+
+	@Inject
+	private KeyManager keyManager;
+
+	@Inject
+	private OverlayManager overlayManager;
+
+	@Inject
+	private NexusDiagnosticsOverlay diagnosticsOverlay;
+
+	/* Times the phases of opening and navigating the menu, should it be enabled in the config */
+	@Inject
+	private PhaseTimer phaseTimer;
+
+	/* Measures the latency of teleports, from selection until the game acts upon them */
+	@Inject
+	private TeleportLatencyTracker latencyTracker;
+
+	/* Accounts for the allocations of the event handlers and UI callbacks, should it be enabled */
+	@Inject
+	private AllocationMeter allocationMeter;
+
+	/* The counters and gauges exposed through JMX, registered for as long as the plugin is running */
+	private NexusMetrics metrics;
+
+	/* Receives the events which only matter while the Nexus menu is open,
+	   being registered with the event bus only for as long as the menu is */
+	private final InterfaceListener interfaceListener = new InterfaceListener();
+	private boolean interfaceListenerRegistered;
+
+	/* Receives the first game tick after the menu closes upon a tracked teleport */
+	private final TeleportTickListener teleportTickListener = new TeleportTickListener();
+	private boolean teleportTickListenerRegistered;
+
+
+	/* Completes once the definitions have been loaded and the sprites installed */
+	private volatile CompletableFuture<Void> readyFuture;
+
 	private RegionDefinition[] regionDefinitions;
+	private TeleportDefinition[] teleportDefinitions;
 	private SpriteDefinition[] spriteDefinitions;
 
+	/* The decoded images of the custom sprites, kept for the compositing of the maps */
+	private BufferedImage[] spriteImages;
+
+	/* The layout of the pages, built in the background once the definitions
+	   are loaded, or otherwise upon the menu being opened before it's built */
+	private volatile PageModel pageModel;
+	private boolean pageModelBuilding;
+
 	private boolean mapEnabled;
-	private	boolean switchingModes;
 	private String teleportAction;
+	private String alternateAction;
+	private int nexusMode = -1;
+
+	/* The mode to which the portal is expected to switch, through either the radio
+	   buttons or a teleport used in the other mode, or -1 if no switch is awaited. The
+	   switch is only confirmed upon the menu being reloaded with the portal in that mode,
+	   and is abandoned should the menu be closed or the reload not arrive in time */
+	private int expectedMode = -1;
+	private int modeSwitchTick;
+
+	/* The teleport to be used once the switch of mode is confirmed, or -1 if there's none */
+	private int requestedTeleport = -1;
 
-	private Map<String, Teleport> availableTeleports;
+	/* The teleports available to the player, indexed as per the teleport
+	   definitions, and those found in the most recent scan of the labels */
+	private Teleport[] availableTeleports;
+	private boolean[] teleportsFound;
+
+	/* The lower case shortcut keys of the available teleports, published
+	   on the client thread for the key listener upon the AWT thread */
+	private volatile char[] shortcutKeys = NO_SHORTCUT_KEYS;
+
+	/* Regions whose teleport buttons need updating before their map page is next displayed */
+	private boolean[] regionButtonsStale;
+
+	/* The menu names of the available teleports, or null should they need
+	   rebuilding. Only ever invalidated and rebuilt upon the client thread */
+	private TeleportNameTable teleportNames;
+	private TeleportLabelParser labelParser;
 
 	/* Widgets */
 	private List<Integer> hiddenWidgetIDs;
+	private Widget portalWindow;
+
+	/* The default widgets hidden while the map is displayed, resolved upon each
+	   opening of the menu, and whether they're currently shown */
+	private Widget[] hiddenWidgets;
+	private boolean defaultWidgetsVisible;
+
+	/* Components, which are retained once created, being attached to the new widgets
+	   each time the menu is opened. The index page and checkbox are created upon first
+	   opening the menu, whereas each map page is created upon first being displayed */
 	private UIGraphic mapGraphic;
 	private UIGraphic[] indexRegionGraphics;
 	private UIButton[] indexRegionIcons;
+	private UIButton[] teleportButtons;
 	private UICheckBox mapToggleCheckbox;
 
 	private UIPage indexPage;
-	private List<UIPage> mapPages;
+	private UIPage mapFramePage;
+	private UIPage[] mapPages;
+
+	/* Dispatches the events of the widgets created on the portal window to their
+	   components, accounting for the allocations of their callbacks with the meter */
+	@Inject
+	private EventHub eventHub;
+
+	/* Tracks the pages currently shown, so navigating only touches the pages involved */
+	private final PageReconciler pageReconciler = new PageReconciler();
+
+	/* Animates the components, being advanced each frame while the menu is open */
+	private final TweenEngine tweenEngine = new TweenEngine(TWEEN_CAPACITY);
+
+	/* Whether the map pages draw each region map and its teleport icons as a single
+	   composited sprite, with a single component receiving the input for the icons */
+	private boolean mapsComposited;
+	private volatile MapCompositor mapCompositor;
+	private UIHitLayer mapHitLayer;
+	private BitSet regionAvailability;
+	private int displayedRegion;
+
+	/* The region of the map page being shown, or -1 for the index page,
+	   which is shown again should the menu be reloaded by switching modes */
+	private int shownRegion = -1;
 
 	@Override
 	protected void startUp()
 	{
-		this.loadDefinitions();
 		this.createHiddenWidgetList();
+		this.configCache.refresh();
+
+		// Time the phases of the menu and the teleports, and account
+		// for the allocations of the handlers, should it be enabled
+		this.updateDiagnostics();
+		this.overlayManager.add(this.diagnosticsOverlay);
+
+		this.metrics = new NexusMetrics(this, this.teleportCache, this.eventHub, this.latencyTracker);
+		this.metrics.register();
+
+		// Load the definitions and decode the custom sprites in parallel, in the background.
+		// Should the menu be opened before they're ready, the default menu is left in place
+		CompletableFuture<Void> ready = new CompletableFuture<>();
+		this.readyFuture = ready;
+
+		// Recorded once the map is ready, should a flight recording be taking place
+		StartUpEvent startUpEvent = (FlightRecording.AVAILABLE && StartUpEvent.isRecorded()) ? new StartUpEvent() : null;
+
+		CompletableFuture<RegionDefinition[]> regionsLoaded = CompletableFuture.supplyAsync(NexusMapPlugin::loadRegionDefinitions);
+		CompletableFuture<SpriteDefinition[]> spritesLoaded = CompletableFuture.supplyAsync(NexusMapPlugin::loadSpriteDefinitions);
+		CompletableFuture<BufferedImage[]> spritesDecoded = spritesLoaded.thenCompose(spriteDefs ->
+			SpriteLoader.decodeAsync(spriteDefs, ForkJoinPool.commonPool()));
+
+		// Once everything is loaded, apply the definitions on the client thread
+		regionsLoaded.thenAcceptBoth(spritesDecoded, (regionDefs, images) ->
+			this.clientThread.invoke(() -> this.onDefinitionsLoaded(ready, regionDefs, spritesLoaded.join(), images, startUpEvent)))
+			.whenComplete((v, ex) ->
+			{
+				if (ex != null)
+				{
+					log.error("Unable to load the Nexus map definitions", ex);
+					ready.completeExceptionally(ex);
+				}
+			});
+	}
+
+	/**
+	 * Gets the future which completes once the definitions have been
+	 * loaded and the custom sprites installed, after which the map is available
+	 * @return the readiness future
+	 */
+	public CompletableFuture<Void> getReadyFuture()
+	{
+		return this.readyFuture;
+	}
 
-		// Add the custom sprites to the sprite manager
-		this.spriteManager.addSpriteOverrides(spriteDefinitions);
+	/**
+	 * Checks whether the definitions have been loaded
+	 * and the custom sprites installed
+	 * @return true if the map is ready to be displayed
+	 */
+	private boolean isReady()
+	{
+		CompletableFuture<Void> ready = this.readyFuture;
+		return ready != null && ready.isDone() && !ready.isCompletedExceptionally();
 	}
 
 	@Provides
@@ -145,42 +356,154 @@ public class NexusMapPlugin extends Plugin
 	@Override
 	protected void shutDown()
 	{
+		// Stop listening for the events of the menu first, should it be open,
+		// so that no later event reads any of the state discarded below
+		this.registerInterfaceListener(false);
+		this.registerTeleportTickListener(false);
+
+		// Stop the definitions from being applied, should they still be loading
+		CompletableFuture<Void> ready = this.readyFuture;
+		this.readyFuture = null;
+		ready.cancel(false);
+
+		this.overlayManager.remove(this.diagnosticsOverlay);
+		this.metrics.unregister();
+		this.phaseTimer.setEnabled(false);
+		this.latencyTracker.setEnabled(false);
+		this.allocationMeter.setEnabled(false);
+
+		// The compositor is also read by the metrics, so it's withdrawn at once
+		MapCompositor compositor = this.mapCompositor;
+		this.mapCompositor = null;
+		this.shortcutKeys = NO_SHORTCUT_KEYS;
+
+		// The rest of the state is only used on the client thread, so it's
+		// discarded there, once any event already being handled has finished
+		this.clientThread.invokeLater(() -> this.discardState(compositor));
+
+		// Write out any change to the display mode which is yet to be written
+		this.configCache.flush();
+	}
+
+	/**
+	 * Removes the sprites installed by the plugin, and discards the definitions,
+	 * so that the components and widgets are recreated from the new definitions
+	 * when the plugin is next started. Called on the client thread
+	 * @param compositor the compositor of the region maps, or null if there's none
+	 */
+	private void discardState(MapCompositor compositor)
+	{
+		if (this.spriteDefinitions != null)
+			SpriteLoader.uninstall(this.client, this.spriteDefinitions);
+
+		if (compositor != null)
+			compositor.clear();
+
 		this.regionDefinitions = null;
-		this.hiddenWidgetIDs.clear();
+		this.spriteDefinitions = null;
+		this.spriteImages = null;
+		this.pageModel = null;
+		this.pageModelBuilding = false;
+		this.teleportNames = null;
+		this.teleportCache.invalidate();
+		this.teleportDefinitions = null;
+		this.hiddenWidgets = null;
+		this.portalWindow = null;
+
+		this.indexPage = null;
+		this.mapFramePage = null;
+		this.mapPages = null;
+	}
 
-		// Remove the custom sprites
-		this.spriteManager.removeSpriteOverrides(spriteDefinitions);
+	/**
+	 * Loads the region definitions table. Called on a background thread
+	 * @return the region definitions
+	 * @throws UncheckedIOException if the table is missing or malformed
+	 */
+	private static RegionDefinition[] loadRegionDefinitions()
+	{
+		try
+		{
+			return DefinitionLoader.loadRegions(DEF_FILE_REGIONS);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
 	}
 
 	/**
-	 * Loads the definition files
+	 * Loads the sprite override definitions table. Called on a background thread
+	 * @return the sprite definitions
+	 * @throws UncheckedIOException if the table is missing or malformed
 	 */
-	private void loadDefinitions()
+	private static SpriteDefinition[] loadSpriteDefinitions()
 	{
-		// Construct an instance of GSON
-		Gson gson = new Gson();
+		try
+		{
+			return DefinitionLoader.loadSprites(DEF_FILE_SPRITES);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
 
-		// Load the definitions files for the regions and sprite override
-		this.regionDefinitions = loadDefinitionResource(RegionDefinition[].class, DEF_FILE_REGIONS, gson);
-		this.spriteDefinitions = loadDefinitionResource(SpriteDefinition[].class, DEF_FILE_SPRITES, gson);
+	/**
+	 * Called on the client thread once the definitions have been loaded and the
+	 * sprite images decoded. Applies the definitions and installs the sprites
+	 * @param ready the readiness future of the start up which loaded the definitions
+	 * @param regionDefs the region definitions
+	 * @param spriteDefs the sprite definitions
+	 * @param images the decoded sprite images
+	 * @param startUpEvent the flight recording event begun upon start up, or null if unsupported
+	 */
+	private void onDefinitionsLoaded(CompletableFuture<Void> ready, RegionDefinition[] regionDefs,
+		SpriteDefinition[] spriteDefs, BufferedImage[] images, StartUpEvent startUpEvent)
+	{
+		// The plugin has been shut down since the loading began
+		if (this.readyFuture != ready)
+			return;
+
+		this.applyDefinitions(regionDefs, spriteDefs);
+		SpriteLoader.install(this.client, spriteDefs, images);
+		this.spriteImages = images;
+		this.metrics.setInstalledSprites(spriteDefs.length, SpriteLoader.estimateBytes(images));
+
+		if (startUpEvent != null && startUpEvent.shouldCommit())
+		{
+			startUpEvent.setRegionCount(regionDefs.length);
+			startUpEvent.setTeleportCount(this.teleportDefinitions.length);
+			startUpEvent.setSpriteCount(spriteDefs.length);
+			startUpEvent.commit();
+		}
+
+		ready.complete(null);
+
+		// The layout depends only upon the definitions, so it's built straight away
+		this.buildPageModelAsync();
 	}
 
 	/**
-	 * Loads a definition resource from a JSON file
-	 * @param classType the class into which the data contained in the JSON file will be read into
-	 * @param resource the name of the resource (file name)
-	 * @param gson a reference to the GSON object
-	 * @param <T> the class type
-	 * @return the data read from the JSON definition file
+	 * Sets the definitions, along with the lookup tables derived from them
+	 * @param regionDefs the region definitions
+	 * @param spriteDefs the sprite definitions
 	 */
-	private <T> T loadDefinitionResource(Class<T> classType, String resource, Gson gson)
+	private void applyDefinitions(RegionDefinition[] regionDefs, SpriteDefinition[] spriteDefs)
 	{
-		// Load the resource as a stream and wrap it in a reader
-		InputStream resourceStream = classType.getResourceAsStream(resource);
-		InputStreamReader definitionReader = new InputStreamReader(resourceStream);
+		this.regionDefinitions = regionDefs;
+		this.spriteDefinitions = spriteDefs;
+
+		// Gather the teleport definitions from each of the regions into a single array
+		this.teleportDefinitions = Arrays.stream(this.regionDefinitions)
+			.flatMap(regionDef -> Arrays.stream(regionDef.getTeleports()))
+			.toArray(TeleportDefinition[]::new);
 
-		// Load the objects from the JSON file
-		return gson.fromJson(definitionReader, classType);
+		this.availableTeleports = new Teleport[this.teleportDefinitions.length];
+		this.teleportsFound = new boolean[this.teleportDefinitions.length];
+		this.regionButtonsStale = new boolean[this.regionDefinitions.length];
+
+		this.labelParser = new TeleportLabelParser();
 	}
 
 	/**
@@ -200,52 +523,384 @@ public class NexusMapPlugin extends Plugin
 	}
 
 	@Subscribe
-	public void onMenuOptionClicked(MenuOptionClicked e)
+	public void onConfigChanged(ConfigChanged e)
 	{
-		// When switching between Teleport and Scry mode in the standard
-		// Nexus menu, the entire interface is reloaded, triggering the
-		// WidgetLoaded event. By listening out for a menu option click
-		// event on either of the radio buttons, we can set a flag indicating
-		// that the widget reload was triggered by the switching of the mode
-		if (e.getWidgetId() == ID_SCRY_RADIO_PANE)
-			this.switchingModes = true;
+		long allocated = this.allocationMeter.start();
+
+		// The event is posted on whichever thread changed the config, such as the
+		// event dispatch thread or the thread writing the display mode, so the new
+		// snapshot is applied on the client thread, alongside the widgets reading it
+		if (this.configCache.isCachedKey(e.getGroup(), e.getKey()))
+		{
+			boolean optionChanged = !this.configCache.isStateKey(e.getGroup(), e.getKey());
+			this.clientThread.invoke(() -> this.applyConfig(optionChanged));
+		}
+
+		this.allocationMeter.stop(Handler.CONFIG_CHANGED, allocated);
 	}
 
-	@Subscribe
-	public void onVarbitChanged(VarbitChanged e)
+	/**
+	 * Takes a new snapshot of the config. Should one of the options have changed,
+	 * rather than the display mode the menu was last in, the teleport buttons are
+	 * updated in case the display of the shortcut keys has changed, along with the
+	 * diagnostics. Called on the client thread
+	 * @param optionChanged true if a config option has changed
+	 */
+	private void applyConfig(boolean optionChanged)
 	{
-		// Update the action text in the menu
-		this.teleportAction = this.getModeAction();
+		this.configCache.refresh();
+
+		if (optionChanged)
+		{
+			this.markTeleportButtonsStale();
+			this.updateDiagnostics();
+		}
 	}
 
 	@Subscribe
 	public void onWidgetLoaded(WidgetLoaded e)
 	{
-		if (e.getGroupId() == GROUP_NEXUS_PORTAL)
+		long allocated = this.allocationMeter.start();
+
+		// Leave the default menu in place if the map isn't ready yet
+		if (e.getGroupId() == GROUP_NEXUS_PORTAL && this.isReady())
 		{
+			long openTime = System.nanoTime();
+			long openStart = this.phaseTimer.start();
+			MenuLoadEvent loadEvent = (FlightRecording.AVAILABLE && MenuLoadEvent.isRecorded()) ? new MenuLoadEvent() : null;
+			boolean componentsCreated = this.indexPage == null;
+
+			// Listen for the events of the menu for as long as it's open
+			this.registerInterfaceListener(true);
+
 			// The main window layer
-			Widget window = this.client.getWidget(ID_PORTAL_WINDOW);
+			this.portalWindow = this.client.getWidget(ID_PORTAL_WINDOW);
+			this.resolveHiddenWidgets();
 
 			// Builds a list of teleports that are
 			// actually available to the player
+			long start = this.phaseTimer.start();
 			this.buildAvailableTeleportList();
-			this.updateDisplayedMenu();
+			this.phaseTimer.stop(Phase.BUILD_TELEPORT_LIST, start);
+
+			// Should the menu have been reloaded by switching modes, keep the page shown
+			// and take up the teleport requested in the other mode, if there was one
+			boolean modeSwitched = this.isModeSwitchConfirmed();
+			int pendingTeleport = modeSwitched ? this.requestedTeleport : -1;
+
+			this.endModeSwitch(modeSwitched);
+			this.updateDisplayedMenu(modeSwitched);
+
+			// Set the teleport action type, which will either be Teleport
+			// or Scry, depending on the value of the VarBit
+			this.updateTeleportAction();
+
+			// The components are only created upon first opening the menu. Afterwards
+			// they're retained, so release the widgets from the previous opening
+			if (componentsCreated)
+				this.createComponents();
+			else
+				this.detachComponents();
+
+			// The widgets of the previous opening no longer exist
+			this.eventHub.clear();
+			this.tweenEngine.clear();
+
+			// Recreate the map pages should the way in which the maps are drawn have changed
+			if (this.configCache.getSnapshot().isCompositeMaps() != this.mapsComposited)
+				this.resetMapPages();
+
+			// Draw the maps of the regions for the teleports now available, ahead of them being displayed
+			if (this.mapsComposited)
+				this.prepareCompositeMaps();
+
+			// Update the components to reflect the current map
+			// state, then create the widgets for the index page
+			this.mapToggleCheckbox.setEnabled(this.mapEnabled);
+
+			start = this.phaseTimer.start();
+			this.attachComponents(this.portalWindow);
+			this.phaseTimer.stop(Phase.ATTACH_COMPONENTS, start);
+
+			start = this.phaseTimer.start();
+			this.updateMapState(this.portalWindow);
+			this.phaseTimer.stop(Phase.UPDATE_MAP_STATE, start);
+
+			// Complete a teleport requested in the other mode, now the portal has switched
+			this.dispatchPendingTeleport(pendingTeleport);
+
+			this.phaseTimer.stop(Phase.OPEN_MENU, openStart);
+			this.metrics.recordOpen(System.nanoTime() - openTime, this.countAvailableTeleports());
+
+			if (loadEvent != null && loadEvent.shouldCommit())
+			{
+				loadEvent.setComponentsCreated(componentsCreated);
+				loadEvent.setMapEnabled(this.mapEnabled);
+				loadEvent.setTeleportAction(this.teleportAction);
+				loadEvent.setAvailableTeleports(this.countAvailableTeleports());
+				loadEvent.setWidgetsCreated(this.countWidgets());
+				loadEvent.commit();
+			}
+		}
+
+		this.allocationMeter.stop(Handler.WIDGET_LOADED, allocated);
+	}
+
+	@Subscribe
+	public void onWidgetClosed(WidgetClosed e)
+	{
+		long allocated = this.allocationMeter.start();
+
+		if (e.getGroupId() == GROUP_NEXUS_PORTAL)
+		{
+			this.registerInterfaceListener(false);
+
+			// Should the menu have been closed, rather than being about
+			// to be reloaded in the other mode, no reload is to be awaited
+			if (e.isUnload())
+				this.endModeSwitch(false);
+
+			// Should the menu have closed upon a teleport, await the tick in which the game acts upon it
+			if (this.latencyTracker.interfaceClosed())
+				this.registerTeleportTickListener(true);
+		}
+
+		this.allocationMeter.stop(Handler.WIDGET_CLOSED, allocated);
+	}
+
+	/**
+	 * Registers or unregisters the listener for the events of the open menu
+	 * @param register true to register the listener, false to unregister it
+	 */
+	private void registerInterfaceListener(boolean register)
+	{
+		if (this.interfaceListenerRegistered == register)
+			return;
+
+		this.interfaceListenerRegistered = register;
+
+		if (register)
+		{
+			this.eventBus.register(this.interfaceListener);
+			this.keyManager.registerKeyListener(this.interfaceListener);
+		}
+		else
+		{
+			this.eventBus.unregister(this.interfaceListener);
+			this.keyManager.unregisterKeyListener(this.interfaceListener);
+		}
+	}
+
+	/**
+	 * Registers or unregisters the listener for the game tick following a teleport
+	 * @param register true to register the listener, false to unregister it
+	 */
+	private void registerTeleportTickListener(boolean register)
+	{
+		if (this.teleportTickListenerRegistered == register)
+			return;
+
+		this.teleportTickListenerRegistered = register;
+
+		if (register)
+			this.eventBus.register(this.teleportTickListener);
+		else
+			this.eventBus.unregister(this.teleportTickListener);
+	}
+
+	/**
+	 * Enables or disables the timing of the phases of the menu, the tracking
+	 * of the teleports and the accounting of allocations, as per the config
+	 */
+	private void updateDiagnostics()
+	{
+		ConfigSnapshot snapshot = this.configCache.getSnapshot();
 
-			// Create the page objects, onto which the UI
-			// components will be placed
-			this.createMenuPages();
+		this.phaseTimer.setEnabled(snapshot.isPhaseTimings());
+		this.latencyTracker.setEnabled(snapshot.isPhaseTimings());
+		this.allocationMeter.setEnabled(snapshot.isAllocationTracking());
+	}
+
+	/**
+	 * Gets the number of events received by the listener of the open menu which required handling
+	 * @return the handled event count
+	 */
+	public long getInterfaceEventsHandled()
+	{
+		return this.interfaceListener.eventsHandled;
+	}
+
+	/**
+	 * Gets the number of events received by the listener of the open menu which were ignored
+	 * @return the skipped event count
+	 */
+	public long getInterfaceEventsSkipped()
+	{
+		return this.interfaceListener.eventsSkipped;
+	}
+
+	/**
+	 * Gets the compositor of the region maps, should the maps be composited
+	 * @return the map compositor, or null if the maps aren't composited
+	 */
+	MapCompositor getMapCompositor()
+	{
+		return this.mapCompositor;
+	}
+
+	/**
+	 * Creates the pages and the UI components placed onto the index page.
+	 * The components of the map pages are created as each page is displayed
+	 */
+	private void createComponents()
+	{
+		// Create the page objects, onto which the UI
+		// components will be placed
+		long start = this.phaseTimer.start();
+		this.createMenuPages();
+		this.phaseTimer.stop(Phase.CREATE_MENU_PAGES, start);
+
+		// Create the custom components
+		start = this.phaseTimer.start();
+		this.createIndexMenu();
+		this.phaseTimer.stop(Phase.CREATE_INDEX_MENU, start);
+
+		start = this.phaseTimer.start();
+		this.createToggleCheckbox();
+		this.phaseTimer.stop(Phase.CREATE_TOGGLE_CHECKBOX, start);
+
+		// The index page is shown by the reconciler once the map state is known
+		this.pageReconciler.hide(this.indexPage);
+	}
+
+	/**
+	 * Creates the widgets for the index page and checkbox components, in
+	 * the order in which they are to be layered, and binds them. The map
+	 * pages are attached as they're displayed
+	 * @param window the layer on which to create the widgets
+	 */
+	private void attachComponents(Widget window)
+	{
+		// Make sure none of the region graphics have been left in their
+		// hover state, should the menu have been closed while hovering
+		for (UIGraphic regionGraphic : this.indexRegionGraphics)
+		{
+			regionGraphic.setY(MAP_SPRITE_POS_Y);
+			regionGraphic.setOpacity(1.0f);
+		}
+
+		this.indexPage.attach(window, this.eventHub);
+		this.mapToggleCheckbox.attach(window, this.eventHub);
+	}
 
-			// Create the custom widgets
-			this.createIndexMenu(window);
-			this.createMapGraphic(window);
-			this.createBackButton(window);
-			this.createTeleportWidgets(window);
-			this.createToggleCheckbox(window);
+	/**
+	 * Releases the widgets bound to each of the components
+	 */
+	private void detachComponents()
+	{
+		this.indexPage.detach();
+		this.mapToggleCheckbox.detach();
+		this.forEachMapPage(UIPage::detach);
+	}
+
+	/**
+	 * Performs an action on the map frame and each of
+	 * the map pages which have been created so far
+	 * @param action the action to perform on each page
+	 */
+	private void forEachMapPage(Consumer<UIPage> action)
+	{
+		if (this.mapFramePage != null)
+			action.accept(this.mapFramePage);
 
-			this.updateMapState(window);
+		for (UIPage mapPage : this.mapPages)
+		{
+			if (mapPage != null)
+				action.accept(mapPage);
 		}
 	}
 
+	/**
+	 * Gets the map page for the given region, ready to be displayed. The page is
+	 * created upon first being requested, and its widgets upon first being requested
+	 * since the menu was opened, at which point its teleport buttons are brought up to date
+	 * @param regionID the region ID
+	 * @return the map page
+	 */
+	private UIPage prepareMapPage(int regionID)
+	{
+		this.prepareMapFrame();
+
+		if (this.mapPages[regionID] == null)
+		{
+			long start = this.phaseTimer.start();
+			this.createMapPage(regionID);
+			this.phaseTimer.stop(Phase.CREATE_MAP_PAGE, start);
+
+			this.pageReconciler.hide(this.mapPages[regionID]);
+		}
+
+		UIPage mapPage = this.mapPages[regionID];
+
+		if (!mapPage.isAttached())
+		{
+			// Only update the buttons if the teleports, action or names have changed
+			if (!this.mapsComposited && this.regionButtonsStale[regionID])
+			{
+				long start = this.phaseTimer.start();
+				this.updateTeleportButtons(regionID);
+				this.phaseTimer.stop(Phase.UPDATE_TELEPORT_BUTTONS, start);
+			}
+
+			mapPage.attach(this.portalWindow, this.eventHub);
+		}
+
+		return mapPage;
+	}
+
+	/**
+	 * Makes sure the components shared by the map pages have been
+	 * created, and that their widgets have been created since the menu was opened
+	 */
+	private void prepareMapFrame()
+	{
+		// Create the map graphic and back arrow shared by the map pages,
+		// along with the input layer over the map if it's composited
+		if (this.mapFramePage == null)
+		{
+			long start = this.phaseTimer.start();
+
+			this.mapFramePage = new UIPage();
+			this.createMapGraphic();
+
+			if (this.mapsComposited)
+				this.createMapHitLayer();
+
+			this.createBackButton();
+
+			this.pageReconciler.hide(this.mapFramePage);
+			this.phaseTimer.stop(Phase.CREATE_MAP_FRAME, start);
+		}
+
+		if (!this.mapFramePage.isAttached())
+			this.mapFramePage.attach(this.portalWindow, this.eventHub);
+	}
+
+	/**
+	 * Looks up the default menu widgets which are hidden while the map
+	 * is displayed, which are shown upon the menu being loaded
+	 */
+	private void resolveHiddenWidgets()
+	{
+		if (this.hiddenWidgets == null)
+			this.hiddenWidgets = new Widget[this.hiddenWidgetIDs.size()];
+
+		for (int i = 0; i < this.hiddenWidgets.length; i++)
+			this.hiddenWidgets[i] = this.client.getWidget(this.hiddenWidgetIDs.get(i));
+
+		this.defaultWidgetsVisible = true;
+	}
+
 	/**
 	 * Shows or hides the default menu widgets
 	 * @param visible the desired visibility state of the widgets,
@@ -253,51 +908,154 @@ public class NexusMapPlugin extends Plugin
 	 */
 	private void setDefaultWidgetVisibility(boolean visible)
 	{
+		if (this.defaultWidgetsVisible == visible)
+			return;
+
+		this.defaultWidgetsVisible = visible;
+
 		// Iterate though each of the non essential widgets
-		for (Integer packedID : this.hiddenWidgetIDs)
+		for (Widget widget : this.hiddenWidgets)
 		{
 			// Update their visibility
-			this.client.getWidget(packedID).setHidden(!visible);
+			if (widget != null)
+				widget.setHidden(!visible);
 		}
 	}
 
 	/**
 	 * Constructs the list of teleports available for the player to use
 	 */
-	private void buildAvailableTeleportList()
+	@VisibleForTesting
+	void buildAvailableTeleportList()
 	{
-		this.availableTeleports = new HashMap<>();
-
-		// Compile the pattern that will match the teleport label
-		// and place the hotkey and teleport name into groups
-		Pattern labelPattern = Pattern.compile(TELE_NAME_PATTERN);
-
 		// Get the parent widgets containing the label list, for both
 		// the primary type teleports and alternate type
 		Widget primaryParent = this.client.getWidget(ID_LOC_LABELS_PRIMARY);
 		Widget alternateParent = this.client.getWidget(ID_LOC_LABELS_ALTERNATE);
 
-		// Fetch all teleports for both the primary and alternate teleport widgets,
-		// appending the results of both to the available teleports maps
-		this.availableTeleports.putAll(this.getTeleportsFromLabelWidget(primaryParent, false, labelPattern));
-		this.availableTeleports.putAll(this.getTeleportsFromLabelWidget(alternateParent, true, labelPattern));
+		// If the labels are the same as upon the previous opening,
+		// the teleports, and the buttons, are already up to date
+		long fingerprint = TeleportCache.fingerprint(primaryParent, alternateParent, this.teleportDefinitions);
+
+		if (this.teleportCache.matches(fingerprint))
+			return;
+
+		this.markTeleportButtonsStale();
+
+		// Otherwise, the teleports may have been persisted upon a previous login
+		if (this.teleportCache.restore(fingerprint, this.availableTeleports, this.teleportDefinitions))
+		{
+			this.updateShortcutKeys();
+			return;
+		}
+
+		// Nothing has been found yet during this scan of the labels
+		Arrays.fill(this.teleportsFound, false);
+
+		// Read the teleports from both the primary and alternate teleport widgets.
+		// Alternates are read last, replacing any primary teleport of the same name
+		this.readTeleportLabels(primaryParent, false);
+		this.readTeleportLabels(alternateParent, true);
+
+		// Remove any teleports which are no longer present in the portal
+		for (int i = 0; i < this.availableTeleports.length; i++)
+		{
+			if (!this.teleportsFound[i])
+				this.availableTeleports[i] = null;
+		}
+
+		this.teleportCache.store(fingerprint, this.availableTeleports);
+		this.updateShortcutKeys();
 	}
 
 	/**
-	 * Updates which menu is being displayed
+	 * Marks the teleport buttons of every region as needing updating before
+	 * their map page is next displayed, along with the names of the teleports.
+	 * Called on the client thread
+	 */
+	private void markTeleportButtonsStale()
+	{
+		if (this.regionButtonsStale != null)
+			Arrays.fill(this.regionButtonsStale, true);
+
+		this.teleportNames = null;
+	}
+
+	/**
+	 * Gets the menu names of the available teleports, building them should the
+	 * teleports, their shortcut keys or the display of the shortcut keys have changed.
+	 * Called on the client thread
+	 * @return the table of names
 	 */
-	private void updateDisplayedMenu()
+	private TeleportNameTable getTeleportNames()
 	{
-		// If the menu is currently switching modes, don't update
-		if (this.switchingModes)
+		if (this.teleportNames == null)
 		{
-			// Reset the flag
-			this.switchingModes = false;
+			this.teleportNames = TeleportNameTable.build(this.getPageModel(), this.availableTeleports,
+				this.configCache.getSnapshot().isDisplayShortcuts());
 		}
-		else
+
+		return this.teleportNames;
+	}
+
+	/**
+	 * Sets the teleport action type, which will either be Teleport or Scry,
+	 * depending on the value of the VarBit. Should it change, the teleport
+	 * buttons are marked as needing updating
+	 */
+	private void updateTeleportAction()
+	{
+		this.nexusMode = this.getMode();
+		String action = this.getModeAction();
+
+		if (!action.equals(this.teleportAction))
+		{
+			this.teleportAction = action;
+			this.alternateAction = action.equals(ACTION_TEXT_SCRY) ? ACTION_TEXT_TELE : ACTION_TEXT_SCRY;
+			this.relabelTeleportActions();
+		}
+	}
+
+	/**
+	 * Renames the action of each of the existing teleport buttons, and of the
+	 * input layer of a composited map, to the current teleport action. The
+	 * buttons are otherwise left as they are, so switching between Teleport
+	 * and Scry doesn't require them to be rebuilt
+	 */
+	private void relabelTeleportActions()
+	{
+		if (this.teleportButtons != null)
+		{
+			for (UIButton teleportButton : this.teleportButtons)
+			{
+				if (teleportButton != null)
+				{
+					teleportButton.renameAction(0, this.teleportAction);
+					teleportButton.renameAction(1, this.alternateAction);
+				}
+			}
+		}
+
+		if (this.mapHitLayer != null)
+		{
+			this.mapHitLayer.renameAction(0, this.teleportAction);
+			this.mapHitLayer.renameAction(1, this.alternateAction);
+		}
+	}
+
+	/**
+	 * Updates which menu is being displayed
+	 * @param modeSwitched true if the menu has been reloaded by switching modes
+	 */
+	private void updateDisplayedMenu(boolean modeSwitched)
+	{
+		// If the menu has switched modes, don't update,
+		// leaving the same page to be shown again after the reload
+		if (!modeSwitched)
 		{
 			// Set the initial map state from config
 			this.mapEnabled = this.getInitialMapState();
+			this.shownRegion = -1;
 		}
 	}
 
@@ -309,130 +1067,233 @@ public class NexusMapPlugin extends Plugin
 	 */
 	private boolean getInitialMapState()
 	{
-		switch (config.initialMode())
+		ConfigSnapshot snapshot = this.configCache.getSnapshot();
+
+		switch (snapshot.getInitialMode())
 		{
 			case NEXUS_MAP:
 				return true;
 			case DEFAULT_MENU:
 				return false;
 			case REMEMBER_PREVIOUS:
-				return this.getPreviousDisplayMode();
+				return snapshot.isPreviousMapState();
 		}
 		return false;
 	}
 
 	/**
-	 * Extracts information from a nexus portals teleport list and returns the information as a Teleport list,
-	 * containing the name, index, shortcut key and type of teleport (either primary or alternate)
+	 * Extracts information from a nexus portals teleport list and places it into the available
+	 * teleports, containing the name, index, shortcut key and type of teleport (either primary
+	 * or alternate). The teleports from the previous opening of the menu are kept where unchanged
 	 * @param labelParent the widget containing a teleport list
 	 * @param alt true if this widget contains alternate teleports, false if primary
-	 * @param pattern a compiled pattern for matching the text contained in the list item widgets
-	 * @return a list containing all available teleports for the provided widget
 	 */
-	private Map<String, Teleport> getTeleportsFromLabelWidget(Widget labelParent, boolean alt, Pattern pattern)
+	private void readTeleportLabels(Widget labelParent, boolean alt)
 	{
 		// Grab the children of the widget, each of which have a text
 		// attribute containing the teleport location name and key shortcut
 		Widget[] labelWidgets = labelParent.getDynamicChildren();
 
-		// Create a map in which to place the available teleport options
-		Map<String, Teleport> teleports = new HashMap<>();
-
 		for (Widget child : labelWidgets)
 		{
-			// Create a pattern matcher with the widgets text content
-			Matcher matcher = pattern.matcher(child.getText());
+			String text = child.getText();
+
+			// If the text isn't a teleport label, skip onto the next
+			if (!this.labelParser.scan(text))
+				continue;
+
+			// Find the definition for the teleport. Teleports
+			// without a definition are never displayed on the map
+			int teleportIndex = this.labelParser.findTeleport(text, this.teleportDefinitions);
+
+			if (teleportIndex == -1)
+				continue;
+
+			this.teleportsFound[teleportIndex] = true;
+
+			// Only construct a new teleport object if it differs from the one already held
+			Teleport teleport = this.availableTeleports[teleportIndex];
 
-			// If the text doesn't match the pattern, skip onto the next
-			if (!matcher.matches())
+			if (teleport != null && teleport.getChildIndex() == child.getIndex()
+				&& teleport.isAlt() == alt && this.labelParser.keyEquals(text, teleport.getKeyShortcut()))
 				continue;
 
-			// Extract the pertinent information
-			String shortcutKey = matcher.group(1);
-			String teleportName =  matcher.group(2);
+			String teleportName = this.teleportDefinitions[teleportIndex].getName();
+			String shortcutKey = this.labelParser.getKey(text);
 
-			// Construct a new teleport object for us to add to the map of available teleports
-			teleports.put(teleportName, new Teleport(teleportName, child.getIndex(), shortcutKey, alt));
+			this.availableTeleports[teleportIndex] = new Teleport(teleportName, child.getIndex(), shortcutKey, alt);
 		}
+	}
+
+	/**
+	 * Builds the page model on a background thread, unless it has already
+	 * been built or the definitions have yet to be loaded. The model is
+	 * handed over to the client thread once built
+	 */
+	private void buildPageModelAsync()
+	{
+		if (this.pageModel != null || this.pageModelBuilding || !this.isReady())
+			return;
+
+		this.pageModelBuilding = true;
+
+		RegionDefinition[] regionDefs = this.regionDefinitions;
+
+		CompletableFuture.supplyAsync(() -> PageModel.build(regionDefs, this::createTeleportCallback, this::createAlternateCallback))
+			.whenComplete((model, ex) -> this.clientThread.invoke(() ->
+			{
+				// The plugin may have been restarted, with new definitions, during the build
+				if (this.regionDefinitions != regionDefs)
+					return;
+
+				this.pageModelBuilding = false;
+
+				if (ex != null)
+					log.warn("Unable to build the Nexus page model", ex);
+				else if (this.pageModel == null)
+					this.pageModel = model;
+			}));
+	}
+
+	/**
+	 * Gets the page model, building it on the calling thread should
+	 * the menu be opened before it was built in the background
+	 * @return the page model
+	 */
+	private PageModel getPageModel()
+	{
+		if (this.pageModel == null)
+			this.pageModel = PageModel.build(this.regionDefinitions, this::createTeleportCallback, this::createAlternateCallback);
+
+		return this.pageModel;
+	}
+
+	/**
+	 * Creates the callback for the menu action of a teleport button. The teleport
+	 * is looked up when the action is selected, as the teleports available to the
+	 * player are rebuilt upon each opening of the menu
+	 * @param teleportIndex the index of the teleport definition
+	 * @return the callback
+	 */
+	private MenuAction createTeleportCallback(int teleportIndex)
+	{
+		return () ->
+		{
+			this.latencyTracker.selected(TeleportPath.MAP);
+			this.triggerTeleport(this.getAvailableTeleport(teleportIndex), true);
+		};
+	}
 
-		return teleports;
+	/**
+	 * Creates the callback which uses the teleport in the other mode of the portal,
+	 * switching the mode of the portal before triggering the teleport
+	 * @param teleportIndex the index of the teleport
+	 * @return the callback
+	 */
+	private MenuAction createAlternateCallback(int teleportIndex)
+	{
+		return () ->
+		{
+			this.latencyTracker.selected(TeleportPath.MAP);
+			this.triggerInOtherMode(teleportIndex);
+		};
 	}
 
 	/**
 	 * Creates the pages for the nexus menu, which are used to group the
 	 * various UI components in order to conveniently switch between them
 	 */
-	private void createMenuPages()
+	@VisibleForTesting
+	void createMenuPages()
 	{
 		this.indexPage = new UIPage();
-		this.mapPages = new ArrayList<>(regionDefinitions.length);
+		this.resetMapPages();
+	}
+
+	/**
+	 * Discards the map pages, and the frame they share, which are
+	 * then created as they're displayed, drawing the maps in the way
+	 * currently set in the config
+	 */
+	private void resetMapPages()
+	{
+		this.mapFramePage = null;
+		this.mapPages = new UIPage[regionDefinitions.length];
+
+		// The teleport buttons are also created along with the map pages
+		this.teleportButtons = new UIButton[this.teleportDefinitions.length];
+
+		this.mapsComposited = this.configCache.getSnapshot().isCompositeMaps();
+		this.mapHitLayer = null;
+		this.displayedRegion = -1;
+
+		if (this.mapsComposited)
+		{
+			if (this.mapCompositor == null)
+				this.mapCompositor = new MapCompositor(this.client, this.clientThread, ForkJoinPool.commonPool(),
+					this.spriteManager, this.spriteDefinitions, this.spriteImages, this::onCompositeInstalled);
 
-		// Add a page for each region
-		for (int i = 0; i < regionDefinitions.length; i++)
-			this.mapPages.add(new UIPage());
+			this.regionAvailability = new BitSet();
+		}
+		else if (this.mapCompositor != null)
+		{
+			// Remove the composited sprites, which are no longer needed
+			this.mapCompositor.clear();
+			this.mapCompositor = null;
+		}
 	}
 
 	/**
 	 * Creates the widgets and components required for the index menu,
 	 * such as the index maps and the region icons
-	 * @param window the layer on which to create the widgets
 	 */
-	private void createIndexMenu(Widget window)
+	private void createIndexMenu()
 	{
-		// Create a graphic widget for the background image of the index page
-		Widget backingWidget = window.createChild(-1, WidgetType.GRAPHIC);
+		PageModel model = this.getPageModel();
 
-		// Wrap in a UIGraphic, set dimensions, position and sprite
-		UIGraphic indexBackingGraphic = new UIGraphic(backingWidget);
+		// Create a graphic for the background image of
+		// the index page. Set dimensions, position and sprite
+		UIGraphic indexBackingGraphic = new UIGraphic();
 		indexBackingGraphic.setPosition(MAP_SPRITE_POS_X, MAP_SPRITE_POS_Y);
 		indexBackingGraphic.setSize(INDEX_MAP_SPRITE_WIDTH, INDEX_MAP_SPRITE_HEIGHT);
 		indexBackingGraphic.setSprite(REGION_MAP_MAIN);
 
 		// Initialise the arrays for the map graphics and icons
-		this.indexRegionGraphics = new UIGraphic[regionDefinitions.length];
-		this.indexRegionIcons = new UIButton[regionDefinitions.length];
+		this.indexRegionGraphics = new UIGraphic[model.getRegionCount()];
+		this.indexRegionIcons = new UIButton[model.getRegionCount()];
 
 		// Add the backing graphic to the index page
 		this.indexPage.add(indexBackingGraphic);
 
-		for (int i = 0; i < regionDefinitions.length; i++)
+		for (int i = 0; i < model.getRegionCount(); i++)
 		{
-			// Get definition for the region
-			RegionDefinition regionDef = this.regionDefinitions[i];
+			// Get the layout of the region
+			RegionModel region = model.getRegion(i);
 
-			// Create a widget for the region sprite graphic
-			Widget regionGraphic = window.createChild(-1, WidgetType.GRAPHIC);
-
-			// Wrap in UIGraphic, update the size and position to match that of
-			// the backing graphic. Set the sprite to that of the current region
-			this.indexRegionGraphics[i] = new UIGraphic(regionGraphic);
+			// Create a graphic for the region sprite, update the size and position to match
+			// that of the backing graphic. Set the sprite to that of the current region
+			this.indexRegionGraphics[i] = new UIGraphic();
 			this.indexRegionGraphics[i].setPosition(MAP_SPRITE_POS_X, MAP_SPRITE_POS_Y);
 			this.indexRegionGraphics[i].setSize(INDEX_MAP_SPRITE_WIDTH, INDEX_MAP_SPRITE_HEIGHT);
-			this.indexRegionGraphics[i].setSprite(regionDef.getIndexSprite());
+			this.indexRegionGraphics[i].setSprite(region.getIndexSprite());
 
 			// Add the component to the index page
 			this.indexPage.add(this.indexRegionGraphics[i]);
 
 			// If there's no teleports defined for this region, skip onto the next
-			// before the icon widget is created and has its listeners attached
-			if (!regionDef.hasTeleports())
+			// before the icon component is created and has its listeners attached
+			if (!region.hasTeleports())
 				continue;
 
-			// Create the widget for the regions icon
-			Widget regionIcon = window.createChild(-1, WidgetType.GRAPHIC);
-
-			// Get the definition for the regions icon
-			IconDefinition iconDef = regionDef.getIcon();
-
-			// Wrap in UIBUtton, position the component. attach listeners, etc.
-			this.indexRegionIcons[i] = new UIButton(regionIcon);
-			this.indexRegionIcons[i].setName(regionDef.getName());
-			this.indexRegionIcons[i].setPosition(iconDef.getX(), iconDef.getY());
+			// Create the button for the regions icon, position the component. attach listeners, etc.
+			this.indexRegionIcons[i] = new UIButton();
+			this.indexRegionIcons[i].setName(region.getName());
+			this.indexRegionIcons[i].setPosition(region.getIconX(), region.getIconY());
 			this.indexRegionIcons[i].setSize(MAP_ICON_WIDTH, MAP_ICON_HEIGHT);
-			this.indexRegionIcons[i].setSprites(iconDef.getSpriteStandard(), iconDef.getSpriteHover());
-			this.indexRegionIcons[i].setOnHoverListener((c) -> onIconHover(regionDef.getId()));
-			this.indexRegionIcons[i].setOnLeaveListener((c) -> onIconLeave(regionDef.getId()));
-			this.indexRegionIcons[i].addAction(ACTION_TEXT_SELECT, () -> onIconClicked(regionDef.getId()));
+			this.indexRegionIcons[i].setSprites(region.getIconSprite(), region.getIconHoverSprite());
+			this.indexRegionIcons[i].setOnHoverListener((c) -> onIconHover(region.getId()));
+			this.indexRegionIcons[i].setOnLeaveListener((c) -> onIconLeave(region.getId()));
+			this.indexRegionIcons[i].addAction(ACTION_TEXT_SELECT, () -> onIconClicked(region.getId()));
 
 			// Add to the index page
 			this.indexPage.add(this.indexRegionIcons[i]);
@@ -441,132 +1302,158 @@ public class NexusMapPlugin extends Plugin
 
 	/**
 	 * Creates the graphic used to display the custom map sprite on each of the map pages
-	 * @param window the layer on which to create the widget
 	 */
-	private void createMapGraphic(Widget window)
+	private void createMapGraphic()
 	{
-		// Create the widget for the map graphic
-		Widget mapWidget = window.createChild(-1, WidgetType.GRAPHIC);
-
-		// Wrap the widget in a UIGraphic
-		this.mapGraphic = new UIGraphic(mapWidget);
-		this.mapGraphic.setPosition(7, 35);
+		// Create the map graphic
+		this.mapGraphic = new UIGraphic();
+		this.mapGraphic.setPosition(PageModel.MAP_X, PageModel.MAP_Y);
 		this.mapGraphic.setSize(REGION_MAP_SPRITE_WIDTH, REGION_MAP_SPRITE_HEIGHT);
 
-		// Add the map graphic to each of the map pages
-		this.mapPages.forEach(page -> page.add(this.mapGraphic));
+		// Add the map graphic to the page shared by each of the map pages
+		this.mapFramePage.add(this.mapGraphic);
 	}
 
 	/**
-	 * Creates the back arrow, used to return to the index page
-	 * @param window the layer on which to create the widget
+	 * Creates the invisible component covering the map, which receives
+	 * the input for the teleport icons drawn into the composited map sprite
 	 */
-	private void createBackButton(Widget window)
+	private void createMapHitLayer()
 	{
-		// Create the widget for the button
-		Widget backArrowWidget = window.createChild(-1, WidgetType.GRAPHIC);
+		this.mapHitLayer = new UIHitLayer(this.client);
+		this.mapHitLayer.setPosition(PageModel.MAP_X, PageModel.MAP_Y);
+		this.mapHitLayer.setSize(PageModel.MAP_WIDTH, PageModel.MAP_HEIGHT);
+		this.mapHitLayer.setIconHoverListener(this::onMapIconHover);
+
+		// Add the layer above the map graphic, and beneath the back arrow
+		this.mapFramePage.add(this.mapHitLayer);
+	}
 
-		// Wrap as a button, set the position, sprite, etc.
-		UIButton backArrowButton = new UIFadeButton(backArrowWidget);
+	/**
+	 * Creates the back arrow, used to return to the index page
+	 */
+	private void createBackButton()
+	{
+		// Create the button, set the position, sprite, etc.
+		UIFadeButton backArrowButton = new UIFadeButton();
 		backArrowButton.setSprites(SpriteID.GE_BACK_ARROW_BUTTON);
+		backArrowButton.setTweenEngine(this.tweenEngine);
 		backArrowButton.setPosition(13, 41);
 		backArrowButton.setSize(30, 23);
 
 		// Assign the callback for the button
 		backArrowButton.addAction(ACTION_TEXT_BACK, this::onBackButtonPressed);
 
-		// Add the back arrow to each map page
-		this.mapPages.forEach(page -> page.add(backArrowButton));
+		// Add the back arrow to the page shared by each of the map pages
+		this.mapFramePage.add(backArrowButton);
 	}
 
 	/**
-	 * Creates the teleport icon widgets and places them
-	 * in their correct position on the nexus widget pane
-	 * @param window the layer on which to create the widget
+	 * Creates the map page for a region, along with its teleport icon
+	 * components, placing them in their correct position on the nexus widget pane
+	 * @param regionID the region ID
 	 */
-	private void createTeleportWidgets(Widget window)
+	@VisibleForTesting
+	void createMapPage(int regionID)
 	{
-		// Iterate through each of the map regions
-		for (int i = 0; i < regionDefinitions.length; i++)
+		PageModel model = this.getPageModel();
+		RegionModel region = model.getRegion(regionID);
+		UIPage mapPage = new UIPage();
+
+		// The icons of composited maps are drawn into the map sprite
+		if (this.mapsComposited)
 		{
-			// Current map region
-			RegionDefinition regionDef = this.regionDefinitions[i];
+			this.mapPages[regionID] = mapPage;
+			return;
+		}
 
-			// Get the definitions for the teleports within this map region
-			TeleportDefinition[] teleportDefs = regionDef.getTeleports();
+		// Iterate through each of the *defined* teleports, not just
+		// the teleports that are available to the player
+		int lastTeleport = region.getFirstTeleport() + region.getTeleportCount();
 
-			// Iterate through each of the *defined* teleports, not just
-			// the teleports that are available to the player
-			for (TeleportDefinition teleportDef : teleportDefs)
-			{
-				// Create the teleport icon widget
-				Widget teleportWidget = window.createChild(-1, WidgetType.GRAPHIC);
-
-				// Create a button wrapper for the teleport widget. Set the dimensions,
-				// the position and the visibility to hidden
-				UIButton teleportButton = new UIButton(teleportWidget);
-				teleportButton.setSize(TELE_ICON_SIZE, TELE_ICON_SIZE);
-				teleportButton.setX(teleportDef.getSpriteX());
-				teleportButton.setY(teleportDef.getSpriteY());
-				teleportButton.setVisibility(false);
-
-				// Add the teleport button to this regions map page
-				this.mapPages.get(i).add(teleportButton);
-
-				// Check that the teleport is available to the player
-				if (this.isTeleportAvailable(teleportDef))
-				{
-					// Grab the teleport from the list of available teleports
-					Teleport teleport = this.getAvailableTeleport(teleportDef);
+		for (int i = region.getFirstTeleport(); i < lastTeleport; i++)
+		{
+			TeleportModel teleport = model.getTeleport(i);
+
+			// Create a button for the teleport icon. Set the dimensions,
+			// the position and the visibility to hidden
+			UIButton teleportButton = new UIButton();
+			teleportButton.setSize(TELE_ICON_SIZE, TELE_ICON_SIZE);
+			teleportButton.setX(teleport.getX());
+			teleportButton.setY(teleport.getY());
+			teleportButton.setVisibility(false);
+
+			// Add the teleport button to this regions map page
+			mapPage.add(teleportButton);
+			this.teleportButtons[i] = teleportButton;
+		}
+
+		this.mapPages[regionID] = mapPage;
+
+		// The new buttons have yet to reflect the available teleports
+		this.regionButtonsStale[regionID] = true;
+	}
 
-					// Set the sprite to the active icon for this spell
-					teleportButton.setSprites(teleportDef.getEnabledSprite());
+	/**
+	 * Updates the sprite, name and menu action of each of the teleport
+	 * buttons of a region, according to the teleports available to the player
+	 * @param regionID the region ID
+	 */
+	@VisibleForTesting
+	void updateTeleportButtons(int regionID)
+	{
+		PageModel model = this.getPageModel();
+		RegionModel region = model.getRegion(regionID);
 
-					// Get the teleport name, formatted with alias
-					String teleportName = getFormattedLocationName(teleportDef);
+		this.regionButtonsStale[regionID] = false;
 
-					// If enabled in the config, prepend the shortcut key for this
-					// teleport to the beginning of the teleport name
-					if (this.config.displayShortcuts())
-						teleportName = this.prependShortcutKey(teleportName, teleport.getKeyShortcut());
+		int lastTeleport = region.getFirstTeleport() + region.getTeleportCount();
+		TeleportNameTable teleportNames = this.getTeleportNames();
 
-					// Assign the teleport name
-					teleportButton.setName(teleportName);
+		for (int i = region.getFirstTeleport(); i < lastTeleport; i++)
+		{
+			TeleportModel teleportModel = model.getTeleport(i);
+			UIButton teleportButton = this.teleportButtons[i];
 
-					// Set the teleport action type, which will either be Teleport
-					// or Scry, depending on the value of the VarBit
-					this.teleportAction = this.getModeAction();
+			// Remove the action assigned upon the previous opening of the menu
+			teleportButton.clearActions();
 
-					// Add the menu options and listener, activate listeners
-					teleportButton.addAction(teleportAction, () -> triggerTeleport(teleport));
-				}
-				else
-				{
-					// If the spell isn't available to the player, display the
-					// deactivated spell icon instead
-					teleportButton.setSprites(teleportDef.getDisabledSprite());
-				}
+			// Check that the teleport is available to the player
+			if (this.isTeleportAvailable(i))
+			{
+				// Set the sprite to the active icon for this spell
+				teleportButton.setSprites(teleportModel.getEnabledSprite());
+
+				// Assign the teleport name, formatted with the alias
+				// and, if enabled in the config, the shortcut key
+				teleportButton.setFormattedName(teleportNames.get(i));
+
+				// Add the menu options and listener, activate listeners. The
+				// second option uses the teleport in the other mode of the portal
+				teleportButton.addAction(this.teleportAction, teleportModel.getAction());
+				teleportButton.addAction(this.alternateAction, teleportModel.getAlternateAction());
+			}
+			else
+			{
+				// If the spell isn't available to the player, display the
+				// deactivated spell icon instead, and remove the name
+				teleportButton.setSprites(teleportModel.getDisabledSprite());
+				teleportButton.setName(null);
 			}
 		}
 	}
 
 	/**
 	 * Creates the checkbox for toggling the state of the map
-	 * @param window the layer on which to create the widget
 	 */
-	private void createToggleCheckbox(Widget window)
+	private void createToggleCheckbox()
 	{
-		// Create the graphic widget for the checkbox
-		Widget toggleWidget = window.createChild(-1, WidgetType.GRAPHIC);
-		Widget labelWidget = window.createChild(-1, WidgetType.TEXT);
-
-		// Wrap in checkbox, set size, position, etc.
-		UICheckBox mapToggle = new UICheckBox(toggleWidget, labelWidget);
-		mapToggle.setPosition(10, 10);
-		mapToggle.setName(NAME_TEXT_TOGGLE);
-		mapToggle.setEnabled(this.mapEnabled);
-		mapToggle.setText("Show Map");
-		mapToggle.setToggleListener(this::onMapStateToggled);
+		// Create the checkbox, set size, position, etc.
+		this.mapToggleCheckbox = new UICheckBox();
+		this.mapToggleCheckbox.setPosition(10, 10);
+		this.mapToggleCheckbox.setName(NAME_TEXT_TOGGLE);
+		this.mapToggleCheckbox.setText("Show Map");
+		this.mapToggleCheckbox.setToggleListener(this::onMapStateToggled);
 	}
 
 	/**
@@ -578,47 +1465,173 @@ public class NexusMapPlugin extends Plugin
 		// If the map is enabled, display the custom widgets
 		if (this.mapEnabled)
 		{
-			// Hide the default widgets and display the map index map
+			// Hide the default widgets and display the index map,
+			// or the map page shown before the menu was reloaded
 			this.setDefaultWidgetVisibility(false);
-			this.displayIndexPage();
+
+			if (this.shownRegion != -1)
+				this.displayMapPage(this.shownRegion);
+			else
+				this.displayIndexPage();
 		}
 		else
 		{
 			// Hide all custom widgets and show the default widgets
-			this.indexPage.setVisibility(false);
-			this.mapPages.forEach(page -> page.setVisibility(false));
+			this.pageReconciler.hideAll();
+			this.shownRegion = -1;
 			this.setDefaultWidgetVisibility(true);
 		}
 
-		// Save the new map mode to the config
-		this.setPreviousDisplayMode(mapEnabled);
+		// Save the new map mode to the config, which is
+		// written in the background should the mode have changed
+		this.configCache.setPreviousMapState(this.mapEnabled);
 	}
 
 	/**
 	 * Displays the index page and makes sure
 	 * that each of the map pages are hidden
 	 */
-	private void displayIndexPage()
+	@VisibleForTesting
+	void displayIndexPage()
 	{
-		this.indexPage.setVisibility(true);
-		this.mapPages.forEach(page -> page.setVisibility(false));
+		long start = this.phaseTimer.start();
+		PageDisplayEvent displayEvent = (FlightRecording.AVAILABLE && PageDisplayEvent.isRecorded()) ? new PageDisplayEvent() : null;
+
+		this.pageReconciler.show(this.indexPage);
+		this.shownRegion = -1;
+
+		this.phaseTimer.stop(Phase.DISPLAY_PAGE, start);
+
+		if (displayEvent != null && displayEvent.shouldCommit())
+		{
+			displayEvent.setRegionID(-1);
+			displayEvent.commit();
+		}
 	}
 
 	/**
 	 * Displays the map page for the given region ID
 	 * @param regionID the region ID to display
 	 */
-	private void displayMapPage(int regionID)
+	@VisibleForTesting
+	void displayMapPage(int regionID)
 	{
-		// Hide the index page
-		this.indexPage.setVisibility(false);
+		long start = this.phaseTimer.start();
+		PageDisplayEvent displayEvent = (FlightRecording.AVAILABLE && PageDisplayEvent.isRecorded()) ? new PageDisplayEvent() : null;
+
+		// Count the widgets beforehand, should the event be recorded, to find those created for the page
+		int widgetCount = (displayEvent != null && displayEvent.isEnabled()) ? this.countWidgets() : 0;
 
-		// Make sure all other map pages a hidden
-		this.mapPages.forEach(page -> page.setVisibility(false));
-		this.mapPages.get(regionID).setVisibility(true);
+		// Make sure the page, and its widgets, have been created
+		UIPage mapPage = this.prepareMapPage(regionID);
+
+		// Show the map graphic and back arrow, along with the page,
+		// hiding the index page or whichever map page was shown
+		this.pageReconciler.show(this.mapFramePage, mapPage);
+		this.shownRegion = regionID;
 
 		// Set the sprite to that of the specified region
-		this.mapGraphic.setSprite(regionDefinitions[regionID].getMapSprite());
+		if (this.mapsComposited)
+			this.displayCompositeMap(regionID);
+		else
+			this.mapGraphic.setSprite(this.getPageModel().getRegion(regionID).getMapSprite());
+
+		this.phaseTimer.stop(Phase.DISPLAY_PAGE, start);
+
+		if (displayEvent != null && displayEvent.shouldCommit())
+		{
+			displayEvent.setRegionID(regionID);
+			displayEvent.setRegionName(this.regionDefinitions[regionID].getName());
+			displayEvent.setWidgetsCreated(this.countWidgets() - widgetCount);
+			displayEvent.commit();
+		}
+	}
+
+	/**
+	 * Displays the composited sprite of a region, drawn with the teleports
+	 * currently available, and directs the input of the map to its icons.
+	 * Should the sprite have yet to be drawn, the map is shown without its
+	 * icons until it has been
+	 * @param regionID the region ID
+	 */
+	private void displayCompositeMap(int regionID)
+	{
+		PageModel model = this.getPageModel();
+		RegionModel region = model.getRegion(regionID);
+
+		int spriteID = this.mapCompositor.getCompositeSprite(model, regionID, this.getRegionAvailability(region));
+		this.mapGraphic.setSprite((spriteID != -1) ? spriteID : region.getMapSprite());
+
+		this.displayedRegion = regionID;
+		this.mapHitLayer.setIconGrid(region.getIconGrid());
+	}
+
+	/**
+	 * Draws the composited sprite of each region in the background, for the
+	 * teleports currently available, skipping those which are already drawn
+	 */
+	private void prepareCompositeMaps()
+	{
+		PageModel model = this.getPageModel();
+
+		for (int regionID = 0; regionID < this.regionDefinitions.length; regionID++)
+			this.mapCompositor.prepare(model, regionID, this.getRegionAvailability(model.getRegion(regionID)));
+	}
+
+	/**
+	 * Called on the client thread once a composited sprite has been drawn and
+	 * installed, replacing the plain map should it be shown in the meantime
+	 * @param regionID the ID of the region whose sprite was installed
+	 */
+	private void onCompositeInstalled(int regionID)
+	{
+		if (this.mapsComposited && regionID == this.shownRegion && regionID == this.displayedRegion)
+			this.displayCompositeMap(regionID);
+	}
+
+	/**
+	 * Gathers the teleports of a region which are available to the player
+	 * @param region the region
+	 * @return the available teleports, indexed from the first teleport of
+	 * the region, in a bit set which is reused by each call
+	 */
+	private BitSet getRegionAvailability(RegionModel region)
+	{
+		this.regionAvailability.clear();
+
+		for (int i = 0; i < region.getTeleportCount(); i++)
+		{
+			if (this.isTeleportAvailable(region.getFirstTeleport() + i))
+				this.regionAvailability.set(i);
+		}
+
+		return this.regionAvailability;
+	}
+
+	/**
+	 * Called when the mouse moves onto a different teleport icon of a composited map,
+	 * giving the input layer the name and menu action of the teleport beneath the mouse
+	 * @param iconIndex the index of the icon within the region, or -1 if there's none
+	 */
+	private void onMapIconHover(int iconIndex)
+	{
+		this.mapHitLayer.clearActions();
+
+		int teleportIndex = (iconIndex == -1) ? -1
+			: this.getPageModel().getRegion(this.displayedRegion).getFirstTeleport() + iconIndex;
+
+		// Unavailable teleports have no name or action, as with the teleport buttons
+		if (teleportIndex == -1 || !this.isTeleportAvailable(teleportIndex))
+		{
+			this.mapHitLayer.setName(null);
+			return;
+		}
+
+		TeleportModel teleportModel = this.getPageModel().getTeleport(teleportIndex);
+
+		this.mapHitLayer.setFormattedName(this.getTeleportNames().get(teleportIndex));
+		this.mapHitLayer.addAction(this.teleportAction, teleportModel.getAction());
+		this.mapHitLayer.addAction(this.alternateAction, teleportModel.getAlternateAction());
 	}
 
 	/**
@@ -647,10 +1660,8 @@ public class NexusMapPlugin extends Plugin
 	private void onIconHover(int regionID)
 	{
 		// Move the map sprite for this region up by 2 pixels, and
-		// set the opacity to 75% opaque
-		this.indexRegionGraphics[regionID].setY(MAP_SPRITE_POS_Y - 2);
-		this.indexRegionGraphics[regionID].setOpacity(.75f);
-		this.indexRegionGraphics[regionID].getWidget().revalidate();
+		// fade it to 75% opaque
+		this.animateRegionGraphic(regionID, MAP_SPRITE_POS_Y - 2, .75f);
 	}
 
 	/**
@@ -659,10 +1670,25 @@ public class NexusMapPlugin extends Plugin
 	 */
 	private void onIconLeave(int regionID)
 	{
-		// Restore the original position and set back to fully opaque
-		this.indexRegionGraphics[regionID].setY(MAP_SPRITE_POS_Y);
-		this.indexRegionGraphics[regionID].setOpacity(1.0f);
-		this.indexRegionGraphics[regionID].getWidget().revalidate();
+		// Restore the original position and fade back to fully opaque
+		this.animateRegionGraphic(regionID, MAP_SPRITE_POS_Y, 1.0f);
+	}
+
+	/**
+	 * Animates the position and opacity of the graphic of a region on the index map
+	 * @param regionID the region ID
+	 * @param y the target y position
+	 * @param opacity the target opacity
+	 */
+	private void animateRegionGraphic(int regionID, int y, float opacity)
+	{
+		UIGraphic regionGraphic = this.indexRegionGraphics[regionID];
+		long now = System.nanoTime();
+
+		this.tweenEngine.animate(regionGraphic, TweenEngine.PROPERTY_Y, y,
+			HOVER_ANIMATION_MILLIS, TweenEngine.EASE_OUT_QUAD, now);
+		this.tweenEngine.animate(regionGraphic, TweenEngine.PROPERTY_OPACITY, opacity,
+			HOVER_ANIMATION_MILLIS, TweenEngine.EASE_OUT_QUAD, now);
 	}
 
 	/**
@@ -691,11 +1717,148 @@ public class NexusMapPlugin extends Plugin
 	}
 
 	/**
-	 * Teleports the player to the specified teleport location
+	 * Uses a teleport in the other mode of the portal, by switching the mode
+	 * as the radio buttons of the menu would. The teleport is triggered once
+	 * the menu has been reloaded in the new mode, so the player needn't switch
+	 * the mode and then select the teleport themselves
+	 * @param teleportIndex the index of the teleport
+	 */
+	private void triggerInOtherMode(int teleportIndex)
+	{
+		if (!this.switchMode())
+		{
+			this.latencyTracker.cancel();
+			return;
+		}
+
+		// The teleport is only used should the menu be reloaded in the other mode
+		this.expectModeSwitch(teleportIndex);
+	}
+
+	/**
+	 * Awaits the reload of the menu upon the portal switching to the other mode
+	 * @param teleportIndex the index of the teleport to use once the menu has
+	 *                      been reloaded in the other mode, or -1 if there's none
+	 */
+	private void expectModeSwitch(int teleportIndex)
+	{
+		this.expectedMode = (this.getMode() == MODE_SCRY) ? MODE_TELEPORT : MODE_SCRY;
+		this.modeSwitchTick = this.client.getTickCount();
+		this.requestedTeleport = teleportIndex;
+	}
+
+	/**
+	 * Checks whether the portal has switched to the mode expected, within the time allowed
+	 * @return true if the awaited switch of mode has taken place
+	 */
+	private boolean isModeSwitchConfirmed()
+	{
+		return this.expectedMode != -1 && this.getMode() == this.expectedMode && !this.isModeSwitchExpired();
+	}
+
+	/**
+	 * Checks whether the menu has failed to be reloaded in time after switching modes
+	 * @return true if a switch of mode is awaited, but the time allowed has passed
+	 */
+	private boolean isModeSwitchExpired()
+	{
+		return this.expectedMode != -1
+			&& this.client.getTickCount() - this.modeSwitchTick > MODE_SWITCH_TIMEOUT_TICKS;
+	}
+
+	/**
+	 * Stops awaiting a switch of mode. Should it not have been confirmed,
+	 * the tracking of the teleport requested in the other mode is cancelled
+	 * @param confirmed true if the switch of mode has been confirmed
+	 */
+	private void endModeSwitch(boolean confirmed)
+	{
+		if (!confirmed && this.requestedTeleport != -1)
+			this.latencyTracker.cancel();
+
+		this.expectedMode = -1;
+		this.requestedTeleport = -1;
+	}
+
+	/**
+	 * Triggers the teleport requested in the other mode, once the menu has
+	 * been reloaded in that mode, should the teleport still be available
+	 * @param teleportIndex the index of the teleport, or -1 if there's none
+	 */
+	private void dispatchPendingTeleport(int teleportIndex)
+	{
+		if (teleportIndex == -1)
+			return;
+
+		// The menu is being loaded rather than running the script of a menu
+		// option, so the teleport needn't wait for the next frame to be triggered
+		if (this.isTeleportAvailable(teleportIndex))
+			this.triggerTeleport(this.getAvailableTeleport(teleportIndex), false);
+		else
+			this.latencyTracker.cancel();
+	}
+
+	/**
+	 * Switches the mode of the portal by running the script of the mode
+	 * radio buttons, with the details of a click on the radio buttons in place
+	 * of the event placeholders among its arguments
+	 * @return true if the script is to be run, false if the radio buttons
+	 * have no script to run
+	 */
+	private boolean switchMode()
+	{
+		Widget radioPane = this.client.getWidget(ID_SCRY_RADIO_PANE);
+
+		if (radioPane == null || radioPane.getOnOpListener() == null)
+			return false;
+
+		Object[] args = radioPane.getOnOpListener().clone();
+
+		for (int i = 1; i < args.length; i++)
+		{
+			if (!(args[i] instanceof Integer))
+				continue;
+
+			switch ((Integer) args[i])
+			{
+				case EVENT_WIDGET_ID:
+					args[i] = radioPane.getId();
+					break;
+				case EVENT_WIDGET_INDEX:
+					args[i] = radioPane.getIndex();
+					break;
+				case EVENT_OP:
+					args[i] = 1;
+					break;
+				case EVENT_MOUSE_X:
+				case EVENT_MOUSE_Y:
+					args[i] = 0;
+					break;
+			}
+		}
+
+		// Scripts can't be run from within the script of the menu option
+		this.clientThread.invokeLater(() -> this.client.runScript(args));
+		this.metrics.recordModeSwitch();
+		return true;
+	}
+
+	/**
+	 * Teleports the player to the specified teleport location. Scripts can't be
+	 * run from within the script of a menu option, so a teleport selected from
+	 * the menu is triggered upon the next frame, whereas otherwise it's triggered
+	 * at once, the caller being on the client thread
 	 * @param teleport the teleport location
+	 * @param fromMenuOption true if called from within the script of a menu option
 	 */
-    private void triggerTeleport(Teleport teleport)
+    private void triggerTeleport(Teleport teleport, boolean fromMenuOption)
     {
+		long start = this.phaseTimer.start();
+
+		// Recorded once the script has run, spanning its wait for the client thread
+		TeleportDispatchEvent dispatchEvent = (FlightRecording.AVAILABLE && TeleportDispatchEvent.isRecorded())
+			? new TeleportDispatchEvent() : null;
+
 		// Get the appropriate widget parent for the teleport, depending
 		// on whether the teleport is of primary or alternate type
 		int packedID = teleport.isAlt() ? ID_KEYEVENTS_ALTERNATE : ID_KEYEVENTS_PRIMARY;
@@ -705,55 +1868,126 @@ public class NexusMapPlugin extends Plugin
 
     	// Call a CS2 script which will trigger the widget's keypress event.
 		// Credit to Abex for discovering this clever trick.
-		this.clientThread.invokeLater(() -> client.runScript(SCRIPT_TRIGGER_KEY, packedID, widgetIndex));
+		Runnable dispatch = () ->
+		{
+			this.client.runScript(SCRIPT_TRIGGER_KEY, packedID, widgetIndex);
+			this.latencyTracker.scriptRun();
+			this.metrics.recordTeleportDispatched();
+
+			if (dispatchEvent != null && dispatchEvent.shouldCommit())
+			{
+				dispatchEvent.setTeleportName(teleport.getName());
+				dispatchEvent.setAlternate(teleport.isAlt());
+				dispatchEvent.setChildIndex(widgetIndex);
+				dispatchEvent.commit();
+			}
+		};
+
+		if (fromMenuOption)
+			this.clientThread.invokeLater(dispatch);
+		else
+			dispatch.run();
+
+		this.phaseTimer.stop(Phase.TRIGGER_TELEPORT, start);
     }
 
 	/**
-	 * Checks if there's a teleport available for a given teleport definition
-	 * @param teleportDefinition the teleport definition
-	 * @return true, if the teleport is available to the player, otherwise false
+	 * Checks whether a widget holds the teleports listed in the default menu
+	 * @param widgetID the packed ID of the widget
+	 * @return true if the widget is one of the teleport lists
 	 */
-	private boolean isTeleportAvailable(TeleportDefinition teleportDefinition)
+	private static boolean isTeleportListWidget(int widgetID)
 	{
-		return this.availableTeleports.containsKey(teleportDefinition.getName());
+		return widgetID == ID_KEYEVENTS_PRIMARY || widgetID == ID_KEYEVENTS_ALTERNATE
+			|| widgetID == ID_LOC_LABELS_PRIMARY || widgetID == ID_LOC_LABELS_ALTERNATE;
 	}
 
 	/**
-	 * Gets the teleport corresponding to the specified teleport definition
-	 * @param teleportDefinition the teleport definition
-	 * @return the teleport option
+	 * Publishes the shortcut keys of the available teleports for the key
+	 * listener, which is called on the AWT thread. Called on the client
+	 * thread whenever the available teleports have changed
+	 */
+	private void updateShortcutKeys()
+	{
+		char[] keys = new char[this.availableTeleports.length];
+		int count = 0;
+
+		for (Teleport teleport : this.availableTeleports)
+		{
+			String keyShortcut = (teleport != null) ? teleport.getKeyShortcut() : null;
+
+			// Only a single character can be typed as a shortcut
+			if (keyShortcut != null && keyShortcut.length() == 1)
+				keys[count++] = Character.toLowerCase(keyShortcut.charAt(0));
+		}
+
+		this.shortcutKeys = Arrays.copyOf(keys, count);
+	}
+
+	/**
+	 * Checks whether a key is the shortcut of one of the available
+	 * teleports. Called on the AWT thread, so allocates nothing
+	 * @param keyChar the character of the key
+	 * @return true if the key triggers a teleport
 	 */
-	private Teleport getAvailableTeleport(TeleportDefinition teleportDefinition)
+	private boolean isShortcutKey(char keyChar)
 	{
-		return this.availableTeleports.get(teleportDefinition.getName());
+		char key = Character.toLowerCase(keyChar);
+
+		for (char shortcutKey : this.shortcutKeys)
+		{
+			if (shortcutKey == key)
+				return true;
+		}
+
+		return false;
 	}
 
 	/**
-	 * Gets the mode the menu was in at last use, this value is
-	 * stored in the config manager and persists between sessions
-	 * @return true if the last used mode was the map mode, false
-	 * if it was in the default nexus menu mode
+	 * Counts the teleports available to the player
+	 * @return the number of available teleports
 	 */
-	private boolean getPreviousDisplayMode()
+	private int countAvailableTeleports()
 	{
-		// Get the stored previous display mode
-		Boolean mode = this.configManager.getConfiguration(CFG_GROUP, CFG_KEY_STATE, Boolean.class);
+		int count = 0;
 
-		// If the mode has yet to be defined, return false
-		if (mode == null)
-			return false;
+		for (Teleport teleport : this.availableTeleports)
+		{
+			if (teleport != null)
+				count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Counts the widgets created on the portal window by the components
+	 * @return the number of widgets, or 0 if the window isn't loaded
+	 */
+	private int countWidgets()
+	{
+		Widget[] children = (this.portalWindow != null) ? this.portalWindow.getDynamicChildren() : null;
+		return (children != null) ? children.length : 0;
+	}
 
-		// Otherwise return the value pulled from config
-		return mode;
+	/**
+	 * Checks if there's a teleport available for a given teleport definition
+	 * @param teleportIndex the index of the teleport definition
+	 * @return true, if the teleport is available to the player, otherwise false
+	 */
+	private boolean isTeleportAvailable(int teleportIndex)
+	{
+		return this.availableTeleports[teleportIndex] != null;
 	}
 
 	/**
-	 * Stores the display mode the menu was last in into the config
-	 * @param mode true for map mode, false for the standard menu
+	 * Gets the teleport corresponding to the specified teleport definition
+	 * @param teleportIndex the index of the teleport definition
+	 * @return the teleport option
 	 */
-	private void setPreviousDisplayMode(boolean mode)
+	private Teleport getAvailableTeleport(int teleportIndex)
 	{
-		this.configManager.setConfiguration(CFG_GROUP, CFG_KEY_STATE, mode);
+		return this.availableTeleports[teleportIndex];
 	}
 
 	/**
@@ -762,41 +1996,147 @@ public class NexusMapPlugin extends Plugin
 	 */
 	private String getModeAction()
 	{
-		// Get the current mode for the nexus. 0 = Teleport, 1 = Scry
-		int mode = this.client.getVarbitValue(VARBIT_NEXUS_MODE);
-
 		// Return "Teleport" or "Scry", depending on the mode
-		return (mode == 1) ? ACTION_TEXT_SCRY : ACTION_TEXT_TELE;
+		return (this.getMode() == MODE_SCRY) ? ACTION_TEXT_SCRY : ACTION_TEXT_TELE;
+	}
+
+	/**
+	 * Gets the current mode of the Nexus
+	 * @return the mode, either {@link #MODE_TELEPORT} or {@link #MODE_SCRY}
+	 */
+	private int getMode()
+	{
+		return this.client.getVarbitValue(VARBIT_NEXUS_MODE);
 	}
 
 	/**
-	 * Prepends the shortcut key to the teleport name
-	 * @param name the teleport name
-	 * @param key the shortcut key
-	 * @return the teleport name with the shortcut key prepended
+	 * Handles the events which only matter while the Nexus menu is open. Being
+	 * registered only while the menu is open, the plugin doesn't pay for the
+	 * varbit changes and menu clicks which occur throughout the rest of the game
 	 */
-	private String prependShortcutKey(String name, String key)
+	public class InterfaceListener implements KeyListener
 	{
-		return String.format("[%s] %s", key, name);
+		/* Counts of the events received which did and didn't require any work */
+		private volatile long eventsHandled;
+		private volatile long eventsSkipped;
+
+		@Subscribe
+		public void onMenuOptionClicked(MenuOptionClicked e)
+		{
+			long allocated = NexusMapPlugin.this.allocationMeter.start();
+
+			// When switching between Teleport and Scry mode in the standard
+			// Nexus menu, the entire interface is reloaded, triggering the
+			// WidgetLoaded event. By listening out for a menu option click
+			// event on either of the radio buttons, we can await the reload,
+			// and recognise it as being triggered by the switching of the mode
+			if (e.getWidgetId() == ID_SCRY_RADIO_PANE)
+			{
+				this.eventsHandled++;
+				NexusMapPlugin.this.expectModeSwitch(-1);
+				NexusMapPlugin.this.metrics.recordModeSwitch();
+			}
+			// Track the teleports selected from the default menu's list
+			else if (isTeleportListWidget(e.getWidgetId()))
+			{
+				this.eventsHandled++;
+				NexusMapPlugin.this.latencyTracker.selected(TeleportPath.LIST);
+			}
+			else
+			{
+				this.eventsSkipped++;
+			}
+
+			NexusMapPlugin.this.allocationMeter.stop(Handler.MENU_OPTION_CLICKED, allocated);
+		}
+
+		@Subscribe
+		public void onVarbitChanged(VarbitChanged e)
+		{
+			long allocated = NexusMapPlugin.this.allocationMeter.start();
+
+			// The event doesn't say which varbit changed, so
+			// ignore it unless the mode differs from that last seen
+			if (NexusMapPlugin.this.getMode() == NexusMapPlugin.this.nexusMode)
+			{
+				this.eventsSkipped++;
+			}
+			else
+			{
+				// Update the action text in the menu
+				this.eventsHandled++;
+				NexusMapPlugin.this.updateTeleportAction();
+			}
+
+			NexusMapPlugin.this.allocationMeter.stop(Handler.VARBIT_CHANGED, allocated);
+		}
+
+		@Subscribe
+		public void onClientTick(ClientTick e)
+		{
+			long allocated = NexusMapPlugin.this.allocationMeter.start();
+
+			// Give up on a switch of mode should the menu not have been reloaded in time
+			if (NexusMapPlugin.this.isModeSwitchExpired())
+				NexusMapPlugin.this.endModeSwitch(false);
+
+			// Count the frames taken for a selected teleport to close the menu
+			if (NexusMapPlugin.this.latencyTracker.isEnabled())
+				NexusMapPlugin.this.latencyTracker.frame();
+
+			// Advance any animations, which returns at once should there be none
+			NexusMapPlugin.this.tweenEngine.tick(System.nanoTime());
+
+			// Revalidate the widgets of any components which have moved during the frame
+			NexusMapPlugin.this.eventHub.revalidate();
+
+			NexusMapPlugin.this.allocationMeter.stop(Handler.CLIENT_TICK, allocated);
+		}
+
+		@Override
+		public void keyTyped(KeyEvent e)
+		{
+			long allocated = NexusMapPlugin.this.allocationMeter.start();
+
+			// Called on the AWT thread. Track the teleports selected by their shortcut key,
+			// passing the selection over to the client thread along with the time it was made
+			if (NexusMapPlugin.this.latencyTracker.isEnabled() && NexusMapPlugin.this.isShortcutKey(e.getKeyChar()))
+			{
+				long selectedTime = System.nanoTime();
+				NexusMapPlugin.this.clientThread.invoke(() ->
+					NexusMapPlugin.this.latencyTracker.selected(TeleportPath.SHORTCUT, selectedTime));
+			}
+
+			NexusMapPlugin.this.allocationMeter.stop(Handler.KEY_TYPED, allocated);
+		}
+
+		@Override
+		public void keyPressed(KeyEvent e)
+		{
+		}
+
+		@Override
+		public void keyReleased(KeyEvent e)
+		{
+		}
 	}
 
 	/**
-	 * Creates a formatted string which is to be used as the name
-	 * for the teleport icons. The string contains the base name of
-	 * the teleport, and the alias name of the teleport, if is applicable.
-	 * @param teleportDefinition the teleport definition
-	 * @return the formatted string
+	 * Receives the first game tick after the menu has been closed upon a
+	 * teleport, which is when the game acts upon the teleport. Registered
+	 * only while awaiting that tick, unregistering itself upon receiving it
 	 */
-	private String getFormattedLocationName(TeleportDefinition teleportDefinition)
+	public class TeleportTickListener
 	{
-		// Create the base name
-		String name = teleportDefinition.getName();
+		@Subscribe
+		public void onGameTick(GameTick e)
+		{
+			long allocated = NexusMapPlugin.this.allocationMeter.start();
 
-		// If this location has an alias, append it to the
-		// end of the name string, enclosed in parenthesis
-		if (teleportDefinition.hasAlias())
-			name += String.format(" (%s)", teleportDefinition.getAlias());
+			NexusMapPlugin.this.latencyTracker.gameTick();
+			NexusMapPlugin.this.registerTeleportTickListener(false);
 
-		return name;
+			NexusMapPlugin.this.allocationMeter.stop(Handler.GAME_TICK, allocated);
+		}
 	}
 }
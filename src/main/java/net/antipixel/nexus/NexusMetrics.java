@@ -0,0 +1,243 @@
+package net.antipixel.nexus;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import lombok.extern.slf4j.Slf4j;
+import net.antipixel.nexus.diagnostics.SampleWindow;
+import net.antipixel.nexus.diagnostics.TeleportLatencyTracker;
+import net.antipixel.nexus.sprites.MapCompositor;
+import net.antipixel.nexus.ui.EventHub;
+
+/**
+ * Exposes the counters and gauges of the plugin through JMX, so the plugin
+ * can be monitored alongside the rest of the client. The counters are kept
+ * here, being updated by the plugin on the client thread, whereas the gauges
+ * are read from the parts of the plugin which already keep them
+ * @author Antipixel
+ */
+@Slf4j
+public class NexusMetrics implements NexusMetricsMBean
+{
+	static final String OBJECT_NAME = "net.antipixel.nexus:type=NexusMapPlugin";
+
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+	/* The number of recent openings from which the build time is calculated */
+	private static final int OPEN_WINDOW_SIZE = 64;
+
+	private final NexusMapPlugin plugin;
+	private final TeleportCache teleportCache;
+	private final EventHub eventHub;
+	private final TeleportLatencyTracker latencyTracker;
+	private final SampleWindow openTimes;
+
+	private volatile long opens;
+	private volatile long modeSwitches;
+	private volatile long teleportsDispatched;
+	private volatile int availableTeleports;
+
+	/* The custom sprites installed upon start up, and their estimated size */
+	private volatile int installedSprites;
+	private volatile long installedSpriteBytes;
+
+	private ObjectName registeredName;
+
+	/**
+	 * Creates the metrics of the plugin
+	 * @param plugin the plugin
+	 * @param teleportCache the cache of the available teleports
+	 * @param eventHub the hub with which the widgets of the components are registered
+	 * @param latencyTracker the tracker measuring the latency of the teleports
+	 */
+	public NexusMetrics(NexusMapPlugin plugin, TeleportCache teleportCache, EventHub eventHub,
+		TeleportLatencyTracker latencyTracker)
+	{
+		this.plugin = plugin;
+		this.teleportCache = teleportCache;
+		this.eventHub = eventHub;
+		this.latencyTracker = latencyTracker;
+		this.openTimes = new SampleWindow(OPEN_WINDOW_SIZE);
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server, replacing
+	 * any left registered by a previous instance of the plugin
+	 */
+	public void register()
+	{
+		try
+		{
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+
+			if (server.isRegistered(name))
+				server.unregisterMBean(name);
+
+			server.registerMBean(this, name);
+			this.registeredName = name;
+		}
+		catch (JMException e)
+		{
+			log.warn("Unable to register the Nexus map metrics", e);
+		}
+	}
+
+	/**
+	 * Unregisters the metrics from the platform MBean server, should they be registered
+	 */
+	public void unregister()
+	{
+		if (this.registeredName == null)
+			return;
+
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.registeredName);
+		}
+		catch (JMException e)
+		{
+			log.warn("Unable to unregister the Nexus map metrics", e);
+		}
+
+		this.registeredName = null;
+	}
+
+	/**
+	 * Records the menu being replaced with the map
+	 * @param buildNanos the time taken to build the map, in nanoseconds
+	 * @param availableTeleports the number of teleports available to the player
+	 */
+	void recordOpen(long buildNanos, int availableTeleports)
+	{
+		this.opens++;
+		this.openTimes.add(buildNanos);
+		this.availableTeleports = availableTeleports;
+	}
+
+	/**
+	 * Records the mode of the portal being switched
+	 */
+	void recordModeSwitch()
+	{
+		this.modeSwitches++;
+	}
+
+	/**
+	 * Records a teleport being triggered
+	 */
+	void recordTeleportDispatched()
+	{
+		this.teleportsDispatched++;
+	}
+
+	/**
+	 * Sets the custom sprites installed as sprite overrides
+	 * @param count the number of sprites
+	 * @param bytes the estimated size of the sprites, in bytes
+	 */
+	void setInstalledSprites(int count, long bytes)
+	{
+		this.installedSprites = count;
+		this.installedSpriteBytes = bytes;
+	}
+
+	@Override
+	public long getOpens()
+	{
+		return this.opens;
+	}
+
+	@Override
+	public long getModeSwitches()
+	{
+		return this.modeSwitches;
+	}
+
+	@Override
+	public long getTeleportsDispatched()
+	{
+		return this.teleportsDispatched;
+	}
+
+	@Override
+	public double getMeanOpenMillis()
+	{
+		return this.openTimes.getStats().getMean() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getP95OpenMillis()
+	{
+		return this.openTimes.getStats().getP95() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getP95TeleportCloseMillis()
+	{
+		return this.latencyTracker.getCloseLatency().getPercentile(95) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getP95TeleportTickMillis()
+	{
+		return this.latencyTracker.getTickLatency().getPercentile(95) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getMeanFramesToClose()
+	{
+		return this.latencyTracker.getMeanFramesToClose();
+	}
+
+	@Override
+	public long getWidgetsCreated()
+	{
+		return this.eventHub.getWidgetsRegistered();
+	}
+
+	@Override
+	public int getSpriteOverrides()
+	{
+		MapCompositor compositor = this.plugin.getMapCompositor();
+		return this.installedSprites + ((compositor != null) ? compositor.getSpriteCount() : 0);
+	}
+
+	@Override
+	public long getSpriteOverrideBytes()
+	{
+		MapCompositor compositor = this.plugin.getMapCompositor();
+		return this.installedSpriteBytes + ((compositor != null) ? compositor.getSpriteBytes() : 0);
+	}
+
+	@Override
+	public long getTeleportCacheHits()
+	{
+		return this.teleportCache.getHits();
+	}
+
+	@Override
+	public long getTeleportCacheMisses()
+	{
+		return this.teleportCache.getMisses();
+	}
+
+	@Override
+	public int getAvailableTeleports()
+	{
+		return this.availableTeleports;
+	}
+
+	@Override
+	public long getInterfaceEventsHandled()
+	{
+		return this.plugin.getInterfaceEventsHandled();
+	}
+
+	@Override
+	public long getInterfaceEventsSkipped()
+	{
+		return this.plugin.getInterfaceEventsSkipped();
+	}
+}
@@ -0,0 +1,95 @@
+package net.antipixel.nexus;
+
+/**
+ * The counters and gauges of the plugin exposed through JMX, under the
+ * object name {@value NexusMetrics#OBJECT_NAME}. The values are read on
+ * the threads of the MBean server while being updated on the client
+ * thread, so each is only guaranteed to be recent, not consistent
+ * with the others
+ * @author Antipixel
+ */
+public interface NexusMetricsMBean
+{
+	/**
+	 * @return the number of times the Nexus menu has been replaced with the map
+	 */
+	long getOpens();
+
+	/**
+	 * @return the number of times the mode of the portal has been switched from the menu
+	 */
+	long getModeSwitches();
+
+	/**
+	 * @return the number of teleports triggered from the map
+	 */
+	long getTeleportsDispatched();
+
+	/**
+	 * @return the mean time taken to build the map upon the menu being opened, in milliseconds
+	 */
+	double getMeanOpenMillis();
+
+	/**
+	 * @return the 95th percentile of the time taken to build the map, in milliseconds
+	 */
+	double getP95OpenMillis();
+
+	/**
+	 * @return the 95th percentile of the time from a teleport being selected until the menu
+	 * was closed, in milliseconds, which is only measured while the phases are being timed
+	 */
+	double getP95TeleportCloseMillis();
+
+	/**
+	 * @return the 95th percentile of the time from a teleport being selected until the first game
+	 * tick after the menu was closed, in milliseconds, only measured while the phases are being timed
+	 */
+	double getP95TeleportTickMillis();
+
+	/**
+	 * @return the mean number of client frames from a teleport being selected until the menu
+	 * was closed, which is only counted while the phases are being timed
+	 */
+	double getMeanFramesToClose();
+
+	/**
+	 * @return the number of widgets created for the components
+	 */
+	long getWidgetsCreated();
+
+	/**
+	 * @return the number of sprite overrides installed by the plugin
+	 */
+	int getSpriteOverrides();
+
+	/**
+	 * @return the estimated memory held by the sprite overrides, in bytes
+	 */
+	long getSpriteOverrideBytes();
+
+	/**
+	 * @return the number of openings for which the teleports were found in the cache
+	 */
+	long getTeleportCacheHits();
+
+	/**
+	 * @return the number of openings for which the teleports had to be read from the labels
+	 */
+	long getTeleportCacheMisses();
+
+	/**
+	 * @return the number of teleports available to the player upon the last opening
+	 */
+	int getAvailableTeleports();
+
+	/**
+	 * @return the number of events received while the menu was open which required handling
+	 */
+	long getInterfaceEventsHandled();
+
+	/**
+	 * @return the number of events received while the menu was open which were ignored
+	 */
+	long getInterfaceEventsSkipped();
+}
@@ -28,6 +28,15 @@ public class Teleport
 		this.alternate = alt;
 	}
 
+	/**
+	 * Gets the name of the teleport, as listed in the Nexus menu
+	 * @return the teleport name
+	 */
+	public String getName()
+	{
+		return this.name;
+	}
+
 	/**
 	 * Gets the child index of this teleports widget
 	 * @return this teleports widget child index
@@ -0,0 +1,267 @@
+package net.antipixel.nexus;
+
+import java.util.concurrent.ScheduledExecutorService;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.antipixel.nexus.definition.TeleportDefinition;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.config.ConfigManager;
+
+/**
+ * Remembers the teleports read from the labels of the Nexus menu, keyed by a
+ * fingerprint of the labels, so the labels need only be parsed when the contents
+ * of the portal have changed. The most recent teleports are also persisted for
+ * each RuneScape profile, so they're available upon the first opening after login.
+ * Counts of the lookups which were satisfied by the cache, and those which weren't,
+ * are kept for diagnostics
+ * @author Antipixel
+ */
+@Singleton
+public class TeleportCache
+{
+	/* Config key of the persisted teleports, stored in the plugin's config group */
+	private static final String CFG_KEY_TELEPORTS = "availableTeleports";
+
+	private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+	private static final long FNV_PRIME = 0x100000001B3L;
+
+	private final ConfigManager configManager;
+	private final ScheduledExecutorService executor;
+
+	/* The fingerprint of the labels from which the held teleports were read */
+	private boolean valid;
+	private long fingerprint;
+
+	/* The RuneScape profile of which the persisted teleports were last read */
+	private String profileKey;
+	private String persistedTeleports;
+
+	private volatile long hits;
+	private volatile long misses;
+
+	@Inject
+	public TeleportCache(ConfigManager configManager, ScheduledExecutorService executor)
+	{
+		this.configManager = configManager;
+		this.executor = executor;
+	}
+
+	/**
+	 * Computes a fingerprint of the teleport labels, from the number of labels
+	 * and the hash of the text of each. The fingerprint changes whenever any
+	 * label is added, removed, reordered or has its key or name changed. The
+	 * names of the definitions are included, as the teleports are indexed by them
+	 * @param primaryParent the widget containing the primary teleport labels
+	 * @param alternateParent the widget containing the alternate teleport labels
+	 * @param definitions the teleport definitions
+	 * @return the fingerprint
+	 */
+	public static long fingerprint(Widget primaryParent, Widget alternateParent, TeleportDefinition[] definitions)
+	{
+		long hash = FNV_OFFSET_BASIS;
+
+		for (TeleportDefinition definition : definitions)
+			hash = (hash ^ definition.getName().hashCode()) * FNV_PRIME;
+
+		hash = hashLabels(hash, primaryParent.getDynamicChildren());
+		hash = hashLabels(hash, alternateParent.getDynamicChildren());
+
+		return hash;
+	}
+
+	/**
+	 * Folds the count and text of a list of labels into the hash
+	 * @param hash the hash so far
+	 * @param labelWidgets the label widgets
+	 * @return the new hash
+	 */
+	private static long hashLabels(long hash, Widget[] labelWidgets)
+	{
+		hash = (hash ^ labelWidgets.length) * FNV_PRIME;
+
+		for (Widget labelWidget : labelWidgets)
+		{
+			String text = labelWidget.getText();
+			hash = (hash ^ (text != null ? text.hashCode() : 0)) * FNV_PRIME;
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Checks if the teleports held were read from labels with the given fingerprint.
+	 * A match is counted as a hit, while a mismatch is counted upon {@link #restore}
+	 * @param fingerprint the fingerprint of the current labels
+	 * @return true if the held teleports are still current
+	 */
+	public boolean matches(long fingerprint)
+	{
+		if (!this.valid || this.fingerprint != fingerprint)
+			return false;
+
+		this.hits++;
+		return true;
+	}
+
+	/**
+	 * Attempts to restore the teleports persisted for the current RuneScape profile,
+	 * should they have been read from labels with the given fingerprint
+	 * @param fingerprint the fingerprint of the current labels
+	 * @param teleports the available teleports, indexed as per the definitions,
+	 *                  which are replaced by the persisted teleports when restored
+	 * @param definitions the teleport definitions
+	 * @return true if the teleports were restored, false if they must be read from the labels
+	 */
+	public boolean restore(long fingerprint, Teleport[] teleports, TeleportDefinition[] definitions)
+	{
+		// Read the persisted teleports upon first use, and again after switching profiles
+		String currentProfile = this.configManager.getRSProfileKey();
+
+		if (currentProfile != null && !currentProfile.equals(this.profileKey))
+		{
+			this.profileKey = currentProfile;
+			this.persistedTeleports = this.configManager.getRSProfileConfiguration(ConfigCache.CFG_GROUP, CFG_KEY_TELEPORTS);
+		}
+
+		if (this.persistedTeleports != null && this.deserialize(this.persistedTeleports, fingerprint, teleports, definitions))
+		{
+			this.valid = true;
+			this.fingerprint = fingerprint;
+			this.hits++;
+			return true;
+		}
+
+		this.misses++;
+		return false;
+	}
+
+	/**
+	 * Stores the teleports read from the labels with the given fingerprint, and
+	 * persists them for the current RuneScape profile on a background thread
+	 * @param fingerprint the fingerprint of the labels
+	 * @param teleports the available teleports, indexed as per the definitions
+	 */
+	public void store(long fingerprint, Teleport[] teleports)
+	{
+		this.valid = true;
+		this.fingerprint = fingerprint;
+
+		// Only persist the teleports if logged into a profile
+		String currentProfile = this.configManager.getRSProfileKey();
+
+		if (currentProfile == null)
+			return;
+
+		String serialized = serialize(fingerprint, teleports);
+
+		this.profileKey = currentProfile;
+		this.persistedTeleports = serialized;
+
+		this.executor.execute(() ->
+		{
+			// Make sure the profile hasn't been switched in the meantime
+			if (currentProfile.equals(this.configManager.getRSProfileKey()))
+				this.configManager.setRSProfileConfiguration(ConfigCache.CFG_GROUP, CFG_KEY_TELEPORTS, serialized);
+		});
+	}
+
+	/**
+	 * Forgets the teleports held, so that the labels are read upon the next lookup
+	 */
+	public void invalidate()
+	{
+		this.valid = false;
+		this.profileKey = null;
+		this.persistedTeleports = null;
+	}
+
+	/**
+	 * Gets the number of lookups satisfied by the cache
+	 * @return the hit count
+	 */
+	public long getHits()
+	{
+		return this.hits;
+	}
+
+	/**
+	 * Gets the number of lookups for which the labels had to be read
+	 * @return the miss count
+	 */
+	public long getMisses()
+	{
+		return this.misses;
+	}
+
+	/**
+	 * Serialises the teleports, as the fingerprint in hexadecimal on the first line,
+	 * followed by a line for each teleport of the definition index, child index,
+	 * alternate flag and key. The key is last, as it may be any non-whitespace character
+	 * @param fingerprint the fingerprint of the labels
+	 * @param teleports the available teleports
+	 * @return the serialised teleports
+	 */
+	private static String serialize(long fingerprint, Teleport[] teleports)
+	{
+		StringBuilder builder = new StringBuilder(Long.toHexString(fingerprint));
+
+		for (int i = 0; i < teleports.length; i++)
+		{
+			Teleport teleport = teleports[i];
+
+			if (teleport == null)
+				continue;
+
+			builder.append('\n').append(i)
+				.append(',').append(teleport.getChildIndex())
+				.append(',').append(teleport.isAlt() ? 1 : 0)
+				.append(',').append(teleport.getKeyShortcut());
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Deserialises the teleports, should they have the given fingerprint
+	 * @param serialized the serialised teleports
+	 * @param fingerprint the fingerprint of the current labels
+	 * @param teleports the available teleports, which are replaced upon success
+	 * @param definitions the teleport definitions
+	 * @return true if the teleports were deserialised, false if the fingerprint
+	 * didn't match or the serialised teleports were malformed
+	 */
+	private boolean deserialize(String serialized, long fingerprint, Teleport[] teleports, TeleportDefinition[] definitions)
+	{
+		String[] lines = serialized.split("\n");
+		Teleport[] restored = new Teleport[teleports.length];
+
+		try
+		{
+			if (Long.parseUnsignedLong(lines[0], 16) != fingerprint)
+				return false;
+
+			for (int i = 1; i < lines.length; i++)
+			{
+				String[] fields = lines[i].split(",", 4);
+
+				if (fields.length != 4)
+					return false;
+
+				int teleportIndex = Integer.parseInt(fields[0]);
+
+				if (teleportIndex < 0 || teleportIndex >= definitions.length)
+					return false;
+
+				restored[teleportIndex] = new Teleport(definitions[teleportIndex].getName(),
+					Integer.parseInt(fields[1]), fields[3], fields[2].equals("1"));
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			return false;
+		}
+
+		System.arraycopy(restored, 0, teleports, 0, teleports.length);
+		return true;
+	}
+}
@@ -0,0 +1,173 @@
+package net.antipixel.nexus;
+
+import net.antipixel.nexus.definition.TeleportDefinition;
+
+/**
+ * Extracts the shortcut key and teleport name from the text of a label
+ * in the Nexus menu teleport list, without allocating. The labels are
+ * of the form <code>&lt;col=ffffff&gt;K&lt;/col&gt; :  Name</code>, and are
+ * recognised exactly as they would be by the regular expression
+ * <code>&lt;col=ffffff&gt;(\S)&lt;/col&gt; :  (.+)</code>. Rather than
+ * returning substrings, the parser records where the key and name lie
+ * within the text of the most recently scanned label
+ * @author Antipixel
+ */
+public class TeleportLabelParser
+{
+	private static final String KEY_PREFIX = "<col=ffffff>";
+	private static final String KEY_SUFFIX = "</col> :  ";
+
+	private int keyStart;
+	private int keyEnd;
+	private int nameStart;
+
+	/**
+	 * Scans the text of a teleport label
+	 * @param text the label text
+	 * @return true if the text is a teleport label, in which case the positions
+	 * of the key and name are available until the next label is scanned
+	 */
+	public boolean scan(String text)
+	{
+		if (!text.startsWith(KEY_PREFIX))
+			return false;
+
+		int keyStart = KEY_PREFIX.length();
+
+		if (keyStart >= text.length())
+			return false;
+
+		// The shortcut key is a single character, which
+		// may be made up of a pair of surrogate chars
+		int key = text.codePointAt(keyStart);
+
+		if (isWhitespace(key))
+			return false;
+
+		int keyEnd = keyStart + Character.charCount(key);
+
+		if (!text.startsWith(KEY_SUFFIX, keyEnd))
+			return false;
+
+		int nameStart = keyEnd + KEY_SUFFIX.length();
+
+		// The name must contain at least one character, and
+		// must run to the end of the text without a line break
+		if (nameStart >= text.length())
+			return false;
+
+		for (int i = nameStart; i < text.length(); i++)
+		{
+			if (isLineTerminator(text.charAt(i)))
+				return false;
+		}
+
+		this.keyStart = keyStart;
+		this.keyEnd = keyEnd;
+		this.nameStart = nameStart;
+		return true;
+	}
+
+	/**
+	 * Gets the position within the scanned text at which the shortcut key begins
+	 * @return the start index of the key
+	 */
+	public int getKeyStart()
+	{
+		return this.keyStart;
+	}
+
+	/**
+	 * Gets the position within the scanned text at which the shortcut key ends
+	 * @return the end index of the key, exclusive
+	 */
+	public int getKeyEnd()
+	{
+		return this.keyEnd;
+	}
+
+	/**
+	 * Gets the position within the scanned text at which the teleport name
+	 * begins. The name runs until the end of the text
+	 * @return the start index of the name
+	 */
+	public int getNameStart()
+	{
+		return this.nameStart;
+	}
+
+	/**
+	 * Extracts the shortcut key from the scanned text
+	 * @param text the scanned text
+	 * @return the shortcut key
+	 */
+	public String getKey(String text)
+	{
+		return text.substring(this.keyStart, this.keyEnd);
+	}
+
+	/**
+	 * Checks whether the shortcut key of the scanned text matches the given key
+	 * @param text the scanned text
+	 * @param key the key to compare against
+	 * @return true if the keys are identical, otherwise false
+	 */
+	public boolean keyEquals(String text, String key)
+	{
+		return this.regionEquals(text, this.keyStart, this.keyEnd, key);
+	}
+
+	/**
+	 * Finds the teleport definition with the name contained in the scanned text
+	 * @param text the scanned text
+	 * @param definitions the teleport definitions to search
+	 * @return the index of the definition within the array, or -1 if there is no
+	 * teleport defined with the name. Should two definitions share a name, the
+	 * index of the first is returned
+	 */
+	public int findTeleport(String text, TeleportDefinition[] definitions)
+	{
+		for (int i = 0; i < definitions.length; i++)
+		{
+			if (this.regionEquals(text, this.nameStart, text.length(), definitions[i].getName()))
+				return i;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Checks if a region of the text is identical to the given string
+	 * @param text the text
+	 * @param start the start of the region
+	 * @param end the end of the region, exclusive
+	 * @param str the string to compare to the region
+	 * @return true if the region and string are identical, otherwise false
+	 */
+	private boolean regionEquals(String text, int start, int end, String str)
+	{
+		return str.length() == end - start && text.regionMatches(start, str, 0, str.length());
+	}
+
+	/**
+	 * Checks if a character is whitespace, as is matched by \s in a regular expression
+	 * @param codePoint the character
+	 * @return true if the character is whitespace, otherwise false
+	 */
+	private static boolean isWhitespace(int codePoint)
+	{
+		return codePoint == ' ' || codePoint == '\t' || codePoint == '\n'
+			|| codePoint == 0x0B || codePoint == '\f' || codePoint == '\r';
+	}
+
+	/**
+	 * Checks if a character is a line terminator, which are
+	 * the characters not matched by . in a regular expression
+	 * @param c the character
+	 * @return true if the character is a line terminator, otherwise false
+	 */
+	private static boolean isLineTerminator(char c)
+	{
+		return c == '\n' || c == '\r' || c == 0x85 || c == 0x2028 || c == 0x2029;
+	}
+}
@@ -0,0 +1,63 @@
+package net.antipixel.nexus;
+
+import net.antipixel.nexus.model.PageModel;
+import net.antipixel.nexus.ui.UIComponent;
+
+/**
+ * The names of the teleports as displayed in the right-click menu, complete
+ * with their alias, their shortcut key and the colour tag of the menu, indexed
+ * as per the teleport definitions. The names are built once, rather than upon
+ * each update of the teleport buttons, and the table is only rebuilt should the
+ * teleports available, their shortcut keys or the display of the shortcut keys
+ * change. Instances are immutable
+ * @author Antipixel
+ */
+public class TeleportNameTable
+{
+	private final String[] names;
+
+	private TeleportNameTable(String[] names)
+	{
+		this.names = names;
+	}
+
+	/**
+	 * Builds the names of the available teleports
+	 * @param model the page model, holding the name of each teleport along with its alias
+	 * @param availableTeleports the teleports available to the player, indexed as per the teleport definitions
+	 * @param displayShortcuts true to prepend the shortcut key to each name
+	 * @return the table of names
+	 */
+	public static TeleportNameTable build(PageModel model, Teleport[] availableTeleports, boolean displayShortcuts)
+	{
+		String[] names = new String[availableTeleports.length];
+
+		for (int i = 0; i < availableTeleports.length; i++)
+		{
+			Teleport teleport = availableTeleports[i];
+
+			// Unavailable teleports have no name
+			if (teleport == null)
+				continue;
+
+			String name = model.getTeleport(i).getName();
+
+			if (displayShortcuts)
+				name = "[" + teleport.getKeyShortcut() + "] " + name;
+
+			names[i] = UIComponent.formatName(name);
+		}
+
+		return new TeleportNameTable(names);
+	}
+
+	/**
+	 * Gets the menu name of a teleport
+	 * @param teleportIndex the index of the teleport definition
+	 * @return the name, formatted for the menu, or null if the teleport isn't available
+	 */
+	public String get(int teleportIndex)
+	{
+		return this.names[teleportIndex];
+	}
+}
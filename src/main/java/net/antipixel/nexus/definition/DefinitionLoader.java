@@ -0,0 +1,105 @@
+package net.antipixel.nexus.definition;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import net.antipixel.nexus.sprites.SpriteDefinition;
+
+/**
+ * Reads the definition tables which are compiled from the JSON definition
+ * files at build time by the compileDefinitions Gradle task. Each table
+ * begins with a magic number and format version, which must match those
+ * written by the task, followed by the number of entries in the table
+ * @author Antipixel
+ */
+public class DefinitionLoader
+{
+	private static final int TABLE_MAGIC = 0x4E584446;
+	private static final int TABLE_VERSION = 1;
+
+	/**
+	 * Loads the region definitions, along with the
+	 * icon and teleport definitions of each region
+	 * @param resource the name of the compiled region table resource
+	 * @return the region definitions
+	 * @throws IOException if the table is missing or malformed
+	 */
+	public static RegionDefinition[] loadRegions(String resource) throws IOException
+	{
+		try (DataInputStream in = openTable(RegionDefinition.class, resource))
+		{
+			RegionDefinition[] regions = new RegionDefinition[in.readInt()];
+
+			for (int i = 0; i < regions.length; i++)
+			{
+				int id = in.readInt();
+				String name = in.readUTF();
+				IconDefinition icon = new IconDefinition(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+				int indexSprite = in.readInt();
+				int mapSprite = in.readInt();
+
+				TeleportDefinition[] teleports = new TeleportDefinition[in.readInt()];
+
+				for (int j = 0; j < teleports.length; j++)
+				{
+					String teleportName = in.readUTF();
+					String alias = in.readBoolean() ? in.readUTF() : null;
+
+					teleports[j] = new TeleportDefinition(teleportName, alias,
+						in.readInt(), in.readInt(), in.readInt(), in.readInt());
+				}
+
+				regions[i] = new RegionDefinition(id, name, icon, indexSprite, mapSprite, teleports);
+			}
+
+			return regions;
+		}
+	}
+
+	/**
+	 * Loads the custom sprite definitions
+	 * @param resource the name of the compiled sprite table resource
+	 * @return the sprite definitions
+	 * @throws IOException if the table is missing or malformed
+	 */
+	public static SpriteDefinition[] loadSprites(String resource) throws IOException
+	{
+		try (DataInputStream in = openTable(SpriteDefinition.class, resource))
+		{
+			SpriteDefinition[] sprites = new SpriteDefinition[in.readInt()];
+
+			for (int i = 0; i < sprites.length; i++)
+				sprites[i] = new SpriteDefinition(in.readInt(), in.readUTF());
+
+			return sprites;
+		}
+	}
+
+	/**
+	 * Opens a compiled definition table and verifies its header
+	 * @param classType the class relative to which the resource is located
+	 * @param resource the name of the resource
+	 * @return a stream positioned at the start of the table entries
+	 * @throws IOException if the resource is missing or the header doesn't match
+	 */
+	private static DataInputStream openTable(Class<?> classType, String resource) throws IOException
+	{
+		InputStream resourceStream = classType.getResourceAsStream(resource);
+
+		if (resourceStream == null)
+			throw new FileNotFoundException("Missing definition table " + resource);
+
+		DataInputStream in = new DataInputStream(new BufferedInputStream(resourceStream));
+
+		// Make sure the table was written by a compatible version of the build task
+		if (in.readInt() != TABLE_MAGIC || in.readUnsignedShort() != TABLE_VERSION)
+		{
+			in.close();
+			throw new IOException("Incompatible definition table " + resource);
+		}
+
+		return in;
+	}
+}
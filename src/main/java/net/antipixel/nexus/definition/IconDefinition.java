@@ -4,7 +4,7 @@ import lombok.Getter;
 
 /**
  * Contains data that defines a region icon.
- * This information is loaded directly from a JSON file.
+ * This information is compiled from a JSON file at build time.
  * @author Antipixel
  */
 @Getter
@@ -14,4 +14,19 @@ public class IconDefinition
 	private int y;
 	private int spriteStandard;
 	private int spriteHover;
+
+	/**
+	 * Creates a new icon definition
+	 * @param x the x position of the icon
+	 * @param y the y position of the icon
+	 * @param spriteStandard the standard sprite ID
+	 * @param spriteHover the sprite ID to display on hover
+	 */
+	public IconDefinition(int x, int y, int spriteStandard, int spriteHover)
+	{
+		this.x = x;
+		this.y = y;
+		this.spriteStandard = spriteStandard;
+		this.spriteHover = spriteHover;
+	}
 }
@@ -4,7 +4,7 @@ import lombok.Getter;
 
 /**
  * Contains data that defines a game region on the menu.
- * This information is loaded directly from a JSON file.
+ * This information is compiled from a JSON file at build time.
  * @author Antipixel
  */
 @Getter
@@ -18,6 +18,26 @@ public class RegionDefinition
 
 	private TeleportDefinition[] teleportDefinitions;
 
+	/**
+	 * Creates a new region definition
+	 * @param id the region ID
+	 * @param name the name of the region
+	 * @param icon the definition for the region's icon on the index page
+	 * @param indexSprite the sprite ID of the region on the index map
+	 * @param mapSprite the sprite ID of the region's map
+	 * @param teleportDefinitions the teleports within the region
+	 */
+	public RegionDefinition(int id, String name, IconDefinition icon, int indexSprite,
+							int mapSprite, TeleportDefinition[] teleportDefinitions)
+	{
+		this.id = id;
+		this.name = name;
+		this.icon = icon;
+		this.indexSprite = indexSprite;
+		this.mapSprite = mapSprite;
+		this.teleportDefinitions = teleportDefinitions;
+	}
+
 	/**
 	 * Gets the teleport definitions for this region
 	 * @return the teleport definitions
@@ -4,7 +4,7 @@ import lombok.Getter;
 
 /**
  * Contains data that defines a teleport destination.
- * This information is loaded directly from a JSON file.
+ * This information is compiled from a JSON file at build time.
  * @author Antipixel
  */
 @Getter
@@ -17,6 +17,26 @@ public class TeleportDefinition
 	private int enabledSprite;
 	private int disabledSprite;
 
+	/**
+	 * Creates a new teleport definition
+	 * @param name the teleport name, as it appears in the Nexus menu
+	 * @param alias the alternative name of the teleport, or null if it has none
+	 * @param spriteX the x position of the teleport icon
+	 * @param spriteY the y position of the teleport icon
+	 * @param enabledSprite the sprite ID of the icon when the teleport is available
+	 * @param disabledSprite the sprite ID of the icon when the teleport is unavailable
+	 */
+	public TeleportDefinition(String name, String alias, int spriteX, int spriteY,
+							  int enabledSprite, int disabledSprite)
+	{
+		this.name = name;
+		this.alias = alias;
+		this.spriteX = spriteX;
+		this.spriteY = spriteY;
+		this.enabledSprite = enabledSprite;
+		this.disabledSprite = disabledSprite;
+	}
+
 	/**
 	 * Checks if this teleport has an alias defined
 	 * @return true if the teleport has an alias, otherwise false
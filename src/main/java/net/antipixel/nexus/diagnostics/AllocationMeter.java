@@ -0,0 +1,169 @@
+package net.antipixel.nexus.diagnostics;
+
+import java.lang.management.ManagementFactory;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Accounts for the bytes allocated by each invocation of the plugin's event
+ * handlers and UI callbacks, as counted by the JVM for the invoking thread,
+ * keeping the most recent counts of each handler. Accounting is off until
+ * enabled, and is only possible upon a JVM which counts the allocations of
+ * each thread. The handlers are invoked upon several threads, so the bytes
+ * allocated by reading the counter are measured separately for each thread.
+ * An invocation is accounted for as follows:
+ * <pre>
+ * long allocated = allocationMeter.start();
+ * ...
+ * allocationMeter.stop(Handler.WIDGET_LOADED, allocated);
+ * </pre>
+ * @author Antipixel
+ */
+@Slf4j
+@Singleton
+public class AllocationMeter
+{
+	/* The count returned while accounting is disabled */
+	private static final long NOT_COUNTED = Long.MIN_VALUE;
+
+	/* The number of recent invocations kept for each handler */
+	private static final int WINDOW_SIZE = 128;
+
+	/* The number of reads of the counter over which its own allocation is measured */
+	private static final int CALIBRATION_READS = 64;
+
+	private final SampleWindow[] windows;
+	private volatile boolean enabled;
+
+	/* The counters of the JVM, or null if it doesn't count the allocations of each thread */
+	private com.sun.management.ThreadMXBean threadBean;
+
+	/* The bytes allocated by reading the counter upon each thread, which are
+	   discounted from each invocation, measured upon the thread's first invocation */
+	private ThreadLocal<Long> overhead;
+
+	/**
+	 * Constructs a new allocation meter, which is initially disabled
+	 */
+	public AllocationMeter()
+	{
+		this.windows = new SampleWindow[Handler.values().length];
+
+		for (int i = 0; i < this.windows.length; i++)
+			this.windows[i] = new SampleWindow(WINDOW_SIZE);
+	}
+
+	/**
+	 * Enables or disables accounting. The counts recorded so far are
+	 * discarded upon accounting being enabled. Should the JVM not count
+	 * the allocations of each thread, accounting remains disabled
+	 * @param enabled true to account for the allocations, otherwise false
+	 */
+	public synchronized void setEnabled(boolean enabled)
+	{
+		if (enabled && !this.enabled)
+		{
+			if (!this.initialise())
+			{
+				log.warn("Unable to account for allocations, as the JVM doesn't count the allocations of each thread");
+				return;
+			}
+
+			for (SampleWindow window : this.windows)
+				window.clear();
+		}
+
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Checks whether the allocations are being accounted for
+	 * @return true if accounting is enabled
+	 */
+	public boolean isEnabled()
+	{
+		return this.enabled;
+	}
+
+	/**
+	 * Marks the start of an invocation
+	 * @return the bytes allocated by the thread so far, to be passed to {@link #stop(Handler, long)}
+	 */
+	public long start()
+	{
+		return this.enabled ? this.read() : NOT_COUNTED;
+	}
+
+	/**
+	 * Marks the end of an invocation, recording the bytes it allocated
+	 * @param handler the handler invoked
+	 * @param start the bytes allocated before the invocation, as returned by {@link #start()}
+	 */
+	public void stop(Handler handler, long start)
+	{
+		if (start == NOT_COUNTED)
+			return;
+
+		long allocated = this.read() - start - this.overhead.get();
+		this.windows[handler.ordinal()].add(Math.max(0, allocated));
+	}
+
+	/**
+	 * Calculates the statistics of the bytes allocated by the recent invocations of a handler
+	 * @param handler the handler
+	 * @return the statistics, in bytes per invocation
+	 */
+	public SampleStats getStats(Handler handler)
+	{
+		return this.windows[handler.ordinal()].getStats();
+	}
+
+	/**
+	 * Looks up the counters of the JVM, turning on the counting of the allocations
+	 * of each thread if need be, and discards the overheads previously measured
+	 * @return true if the allocations of each thread are counted, otherwise false
+	 */
+	private boolean initialise()
+	{
+		if (this.threadBean == null)
+		{
+			java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+			if (!(bean instanceof com.sun.management.ThreadMXBean))
+				return false;
+
+			com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+
+			if (!threadBean.isThreadAllocatedMemorySupported())
+				return false;
+
+			if (!threadBean.isThreadAllocatedMemoryEnabled())
+				threadBean.setThreadAllocatedMemoryEnabled(true);
+
+			this.threadBean = threadBean;
+		}
+
+		this.overhead = ThreadLocal.withInitial(this::calibrate);
+		return true;
+	}
+
+	/**
+	 * Measures the bytes allocated by reading the counter upon the current thread,
+	 * which would otherwise be attributed to each invocation upon the thread
+	 * @return the bytes allocated by each read
+	 */
+	private long calibrate()
+	{
+		long before = this.read();
+
+		for (int i = 0; i < CALIBRATION_READS; i++)
+			this.read();
+
+		return (this.read() - before) / (CALIBRATION_READS + 1);
+	}
+
+	private long read()
+	{
+		return this.threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,36 @@
+package net.antipixel.nexus.diagnostics;
+
+/**
+ * Checks whether the JVM supports flight recording. The events of the plugin
+ * are only created should it, so the plugin still runs upon a JVM without
+ * it. Each event is only created while a recording enables it, so
+ * that no events are allocated while no recording is taking place
+ * @author Antipixel
+ */
+public final class FlightRecording
+{
+	/* Whether the flight recorder's event API is present */
+	public static final boolean AVAILABLE = isSupported();
+
+	private FlightRecording()
+	{
+	}
+
+	/**
+	 * Checks whether the event API of the flight recorder is present,
+	 * without loading any of the classes of the plugin's events
+	 * @return true if events can be created, otherwise false
+	 */
+	private static boolean isSupported()
+	{
+		try
+		{
+			Class.forName("jdk.jfr.Event", false, FlightRecording.class.getClassLoader());
+			return true;
+		}
+		catch (ClassNotFoundException | LinkageError e)
+		{
+			return false;
+		}
+	}
+}
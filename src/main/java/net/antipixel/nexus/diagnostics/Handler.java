@@ -0,0 +1,35 @@
+package net.antipixel.nexus.diagnostics;
+
+/**
+ * The event handlers and UI callbacks of the plugin
+ * whose allocations are accounted for
+ * @author Antipixel
+ */
+public enum Handler
+{
+	CONFIG_CHANGED("ConfigChanged"),
+	WIDGET_LOADED("WidgetLoaded"),
+	WIDGET_CLOSED("WidgetClosed"),
+	MENU_OPTION_CLICKED("MenuOptionClicked"),
+	VARBIT_CHANGED("VarbitChanged"),
+	CLIENT_TICK("ClientTick"),
+	GAME_TICK("GameTick"),
+	KEY_TYPED("Key typed"),
+	MENU_ACTION("Menu action"),
+	MOUSE_HOVER("Mouse hover"),
+	MOUSE_LEAVE("Mouse leave"),
+	MOUSE_REPEAT("Mouse repeat");
+
+	private final String value;
+
+	Handler(String value)
+	{
+		this.value = value;
+	}
+
+	@Override
+	public String toString()
+	{
+		return this.value;
+	}
+}
@@ -0,0 +1,115 @@
+package net.antipixel.nexus.diagnostics;
+
+import java.util.Arrays;
+
+/**
+ * Counts latencies into buckets whose upper bounds double from one
+ * millisecond upwards, with a final bucket for anything longer. The
+ * percentiles are therefore approximate, being the upper bound of the
+ * bucket in which they fall, whereas the longest latency is exact
+ * @author Antipixel
+ */
+public class LatencyHistogram
+{
+	private static final long NANOS_PER_MILLI = 1_000_000L;
+
+	/* The number of bounded buckets, the last having an upper bound of 4096ms */
+	private static final int BOUNDED_BUCKETS = 13;
+
+	private final long[] bucketCounts;
+	private long count;
+	private long max;
+
+	/**
+	 * Constructs a new, empty histogram
+	 */
+	public LatencyHistogram()
+	{
+		this.bucketCounts = new long[BOUNDED_BUCKETS + 1];
+	}
+
+	/**
+	 * Records a latency
+	 * @param nanos the latency, in nanoseconds
+	 */
+	public synchronized void record(long nanos)
+	{
+		this.bucketCounts[bucketOf(nanos)]++;
+		this.count++;
+		this.max = Math.max(this.max, nanos);
+	}
+
+	/**
+	 * Gets the number of latencies recorded
+	 * @return the latency count
+	 */
+	public synchronized long getCount()
+	{
+		return this.count;
+	}
+
+	/**
+	 * Gets the longest latency recorded
+	 * @return the latency in nanoseconds, or 0 if none have been recorded
+	 */
+	public synchronized long getMax()
+	{
+		return this.max;
+	}
+
+	/**
+	 * Gets the upper bound of the bucket in which a percentile falls
+	 * @param percent the percentile, between 0 and 100
+	 * @return the latency in nanoseconds, never exceeding the longest
+	 * latency recorded, or 0 if none have been recorded
+	 */
+	public synchronized long getPercentile(int percent)
+	{
+		if (this.count == 0)
+			return 0;
+
+		long rank = (long) Math.ceil(percent / 100.0 * this.count);
+		long seen = 0;
+
+		for (int i = 0; i < BOUNDED_BUCKETS; i++)
+		{
+			seen += this.bucketCounts[i];
+
+			if (seen >= rank)
+				return Math.min(upperBound(i), this.max);
+		}
+
+		return this.max;
+	}
+
+	/**
+	 * Removes every recorded latency
+	 */
+	public synchronized void clear()
+	{
+		Arrays.fill(this.bucketCounts, 0);
+		this.count = 0;
+		this.max = 0;
+	}
+
+	/**
+	 * Gets the upper bound of a bucket
+	 * @param bucket the bounded bucket
+	 * @return the upper bound, in nanoseconds
+	 */
+	public static long upperBound(int bucket)
+	{
+		return NANOS_PER_MILLI << bucket;
+	}
+
+	private static int bucketOf(long nanos)
+	{
+		for (int i = 0; i < BOUNDED_BUCKETS; i++)
+		{
+			if (nanos <= upperBound(i))
+				return i;
+		}
+
+		return BOUNDED_BUCKETS;
+	}
+}
@@ -0,0 +1,56 @@
+package net.antipixel.nexus.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * Recorded upon the Nexus menu being loaded, spanning the work done on the
+ * client thread to replace the menu with the map. Begins upon creation
+ * @author Antipixel
+ */
+@Name("net.antipixel.nexus.MenuLoad")
+@Label("Nexus Menu Load")
+@Category({"RuneLite", "Nexus Menu Map"})
+@Description("Building of the map upon the Nexus menu being loaded")
+@Setter
+public class MenuLoadEvent extends Event
+{
+	/* The type of the event, held so it can be checked without creating an event */
+	private static final EventType TYPE = EventType.getEventType(MenuLoadEvent.class);
+
+	@Label("Components Created")
+	@Description("Whether the components were created, rather than reused from a previous opening")
+	private boolean componentsCreated;
+
+	@Label("Map Enabled")
+	private boolean mapEnabled;
+
+	@Label("Teleport Action")
+	private String teleportAction;
+
+	@Label("Available Teleports")
+	private int availableTeleports;
+
+	@Label("Widgets Created")
+	private int widgetsCreated;
+
+	public MenuLoadEvent()
+	{
+		this.begin();
+	}
+
+	/**
+	 * Checks whether any recording enables the event, so that
+	 * the event needn't be created while none does
+	 * @return true if the event is enabled, otherwise false
+	 */
+	public static boolean isRecorded()
+	{
+		return TYPE.isEnabled();
+	}
+}
@@ -0,0 +1,235 @@
+package net.antipixel.nexus.diagnostics;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import javax.inject.Inject;
+import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.OverlayPriority;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.PanelComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+/**
+ * Displays the median, 95th percentile and longest of the recent durations
+ * of each phase which has been timed, followed by the 95th percentile of the
+ * latencies until the menu closed and the game ticked, and the mean number of
+ * frames until the menu closed, for the teleports selected in each way, and
+ * then the mean, 95th percentile and largest
+ * of the bytes allocated by the recent invocations of each handler. Each
+ * section is only drawn while its measurements are enabled. The values of
+ * each line are only formatted again once they've changed
+ * @author Antipixel
+ */
+public class NexusDiagnosticsOverlay extends Overlay
+{
+	private static final String TITLE = "Nexus diagnostics";
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+	private static final double BYTES_PER_KB = 1024.0;
+
+	/* The mean frame counts are passed to be formatted in hundredths of a frame */
+	private static final double FRAMES_SCALE = 100.0;
+	private static final int PANEL_WIDTH = 220;
+	private static final String DURATION_FORMAT = "%.2f / %.2f / %.2f";
+	private static final String TELEPORT_FORMAT = "%.2f / %.2f / %.1f";
+	private static final String ALLOCATION_FORMAT = "%.1f / %.1f / %.1f";
+
+	private final PhaseTimer phaseTimer;
+	private final TeleportLatencyTracker latencyTracker;
+	private final AllocationMeter allocationMeter;
+	private final PanelComponent panelComponent;
+
+	/* The formatted values of the line of each phase, teleport path and handler */
+	private final FormattedValues[] phaseValues;
+	private final FormattedValues[] pathValues;
+	private final FormattedValues[] handlerValues;
+
+	@Inject
+	public NexusDiagnosticsOverlay(PhaseTimer phaseTimer, TeleportLatencyTracker latencyTracker,
+		AllocationMeter allocationMeter)
+	{
+		this.phaseTimer = phaseTimer;
+		this.latencyTracker = latencyTracker;
+		this.allocationMeter = allocationMeter;
+		this.panelComponent = new PanelComponent();
+		this.panelComponent.setPreferredSize(new Dimension(PANEL_WIDTH, 0));
+
+		this.phaseValues = createFormattedValues(Phase.values().length, DURATION_FORMAT,
+			NANOS_PER_MILLI, NANOS_PER_MILLI, NANOS_PER_MILLI);
+		this.pathValues = createFormattedValues(TeleportPath.values().length, TELEPORT_FORMAT,
+			NANOS_PER_MILLI, NANOS_PER_MILLI, FRAMES_SCALE);
+		this.handlerValues = createFormattedValues(Handler.values().length, ALLOCATION_FORMAT,
+			BYTES_PER_KB, BYTES_PER_KB, BYTES_PER_KB);
+
+		this.setPosition(OverlayPosition.TOP_LEFT);
+		this.setPriority(OverlayPriority.LOW);
+	}
+
+	@Override
+	public Dimension render(Graphics2D graphics)
+	{
+		if (!this.phaseTimer.isEnabled() && !this.allocationMeter.isEnabled())
+			return null;
+
+		this.panelComponent.getChildren().clear();
+		this.panelComponent.getChildren().add(TitleComponent.builder()
+			.text(TITLE)
+			.color(Color.ORANGE)
+			.build());
+
+		if (this.phaseTimer.isEnabled())
+			this.addTimings();
+
+		if (this.allocationMeter.isEnabled())
+			this.addAllocations();
+
+		return this.panelComponent.render(graphics);
+	}
+
+	/**
+	 * Adds the durations of the phases and the latencies of the teleports
+	 */
+	private void addTimings()
+	{
+		this.addHeading("Phase", "p50 / p95 / max ms");
+
+		for (Phase phase : Phase.values())
+		{
+			SampleStats stats = this.phaseTimer.getStats(phase);
+
+			// Leave out the phases which haven't occurred
+			if (stats.getCount() == 0)
+				continue;
+
+			this.addLine(phase.toString(), this.phaseValues[phase.ordinal()]
+				.format(stats.getP50(), stats.getP95(), stats.getMax()));
+		}
+
+		// Leave out the teleports until one has been triggered
+		if (this.latencyTracker.getCloseLatency().getCount() == 0)
+			return;
+
+		// The latency of each way of selecting a teleport, until the game acts upon it
+		this.addHeading("Teleport", "close / tick p95 ms / frames");
+
+		for (TeleportPath path : TeleportPath.values())
+		{
+			LatencyHistogram closeLatency = this.latencyTracker.getCloseLatency(path);
+
+			if (closeLatency.getCount() == 0)
+				continue;
+
+			LatencyHistogram tickLatency = this.latencyTracker.getTickLatency(path);
+			long framesToClose = Math.round(this.latencyTracker.getMeanFramesToClose(path) * FRAMES_SCALE);
+
+			this.addLine(path.toString(), this.pathValues[path.ordinal()]
+				.format(closeLatency.getPercentile(95), tickLatency.getPercentile(95), framesToClose));
+		}
+	}
+
+	/**
+	 * Adds the bytes allocated by the invocations of each handler
+	 */
+	private void addAllocations()
+	{
+		this.addHeading("Handler", "mean / p95 / max KB");
+
+		for (Handler handler : Handler.values())
+		{
+			SampleStats stats = this.allocationMeter.getStats(handler);
+
+			// Leave out the handlers which haven't been invoked
+			if (stats.getCount() == 0)
+				continue;
+
+			this.addLine(handler.toString(), this.handlerValues[handler.ordinal()]
+				.format(stats.getMean(), stats.getP95(), stats.getMax()));
+		}
+	}
+
+	/**
+	 * Adds a line heading a section
+	 * @param left the heading of the labels
+	 * @param right the heading of the values
+	 */
+	private void addHeading(String left, String right)
+	{
+		this.panelComponent.getChildren().add(LineComponent.builder()
+			.left(left)
+			.right(right)
+			.leftColor(Color.LIGHT_GRAY)
+			.rightColor(Color.LIGHT_GRAY)
+			.build());
+	}
+
+	/**
+	 * Adds a line displaying some values
+	 * @param label the label of the line
+	 * @param values the formatted values
+	 */
+	private void addLine(String label, String values)
+	{
+		this.panelComponent.getChildren().add(LineComponent.builder()
+			.left(label)
+			.right(values)
+			.build());
+	}
+
+	private static FormattedValues[] createFormattedValues(int count, String format,
+		double firstDivisor, double secondDivisor, double thirdDivisor)
+	{
+		FormattedValues[] values = new FormattedValues[count];
+
+		for (int i = 0; i < count; i++)
+			values[i] = new FormattedValues(format, firstDivisor, secondDivisor, thirdDivisor);
+
+		return values;
+	}
+
+	/**
+	 * The three values last displayed upon a line, along with their
+	 * text, which is only formatted again once any of them change
+	 */
+	private static class FormattedValues
+	{
+		private final String format;
+		private final double firstDivisor;
+		private final double secondDivisor;
+		private final double thirdDivisor;
+
+		private long first;
+		private long second;
+		private long third;
+		private String text;
+
+		FormattedValues(String format, double firstDivisor, double secondDivisor, double thirdDivisor)
+		{
+			this.format = format;
+			this.firstDivisor = firstDivisor;
+			this.secondDivisor = secondDivisor;
+			this.thirdDivisor = thirdDivisor;
+		}
+
+		/**
+		 * Gets the text of the values, formatting it should the values have changed
+		 * @param first the first value, before being divided
+		 * @param second the second value, before being divided
+		 * @param third the third value, before being divided
+		 * @return the formatted values
+		 */
+		String format(long first, long second, long third)
+		{
+			if (this.text == null || first != this.first || second != this.second || third != this.third)
+			{
+				this.first = first;
+				this.second = second;
+				this.third = third;
+				this.text = String.format(this.format, first / this.firstDivisor,
+					second / this.secondDivisor, third / this.thirdDivisor);
+			}
+
+			return this.text;
+		}
+	}
+}
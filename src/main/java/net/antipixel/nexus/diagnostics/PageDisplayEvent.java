@@ -0,0 +1,51 @@
+package net.antipixel.nexus.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * Recorded upon the index page or a map page being displayed, including
+ * the creation of any of the page's components and widgets which hadn't
+ * been created upon it being displayed before. Begins upon creation
+ * @author Antipixel
+ */
+@Name("net.antipixel.nexus.PageDisplay")
+@Label("Nexus Page Display")
+@Category({"RuneLite", "Nexus Menu Map"})
+@Description("Display of the index page or a region's map page")
+@Setter
+public class PageDisplayEvent extends Event
+{
+	/* The type of the event, held so it can be checked without creating an event */
+	private static final EventType TYPE = EventType.getEventType(PageDisplayEvent.class);
+
+	@Label("Region ID")
+	@Description("The ID of the region whose map is displayed, or -1 for the index page")
+	private int regionID;
+
+	@Label("Region")
+	private String regionName;
+
+	@Label("Widgets Created")
+	private int widgetsCreated;
+
+	public PageDisplayEvent()
+	{
+		this.begin();
+	}
+
+	/**
+	 * Checks whether any recording enables the event, so that
+	 * the event needn't be created while none does
+	 * @return true if the event is enabled, otherwise false
+	 */
+	public static boolean isRecorded()
+	{
+		return TYPE.isEnabled();
+	}
+}
@@ -0,0 +1,35 @@
+package net.antipixel.nexus.diagnostics;
+
+/**
+ * The phases of the plugin's work which are timed, each
+ * being some part of opening or navigating the Nexus menu
+ * @author Antipixel
+ */
+public enum Phase
+{
+	OPEN_MENU("Open menu"),
+	BUILD_TELEPORT_LIST("Teleport list"),
+	CREATE_MENU_PAGES("Menu pages"),
+	CREATE_INDEX_MENU("Index menu"),
+	CREATE_TOGGLE_CHECKBOX("Toggle checkbox"),
+	ATTACH_COMPONENTS("Attach"),
+	UPDATE_MAP_STATE("Map state"),
+	CREATE_MAP_FRAME("Map graphic"),
+	CREATE_MAP_PAGE("Teleport widgets"),
+	UPDATE_TELEPORT_BUTTONS("Teleport buttons"),
+	DISPLAY_PAGE("Navigation"),
+	TRIGGER_TELEPORT("Trigger teleport");
+
+	private final String value;
+
+	Phase(String value)
+	{
+		this.value = value;
+	}
+
+	@Override
+	public String toString()
+	{
+		return this.value;
+	}
+}
@@ -0,0 +1,96 @@
+package net.antipixel.nexus.diagnostics;
+
+import javax.inject.Singleton;
+
+/**
+ * Times the phases of the plugin's work, keeping the most recent durations of
+ * each phase from which the percentiles are calculated. Timing is off until
+ * enabled, in which case {@link #start()} and {@link #stop(Phase, long)} do
+ * little more than check a flag. A phase is timed as follows:
+ * <pre>
+ * long start = phaseTimer.start();
+ * ...
+ * phaseTimer.stop(Phase.OPEN_MENU, start);
+ * </pre>
+ * @author Antipixel
+ */
+@Singleton
+public class PhaseTimer
+{
+	/* The start time returned while timing is disabled */
+	private static final long NOT_TIMED = Long.MIN_VALUE;
+
+	/* The number of recent durations kept for each phase */
+	private static final int WINDOW_SIZE = 128;
+
+	private final SampleWindow[] windows;
+	private volatile boolean enabled;
+
+	/**
+	 * Constructs a new phase timer, which is initially disabled
+	 */
+	public PhaseTimer()
+	{
+		this.windows = new SampleWindow[Phase.values().length];
+
+		for (int i = 0; i < this.windows.length; i++)
+			this.windows[i] = new SampleWindow(WINDOW_SIZE);
+	}
+
+	/**
+	 * Enables or disables timing. The durations recorded
+	 * so far are discarded upon timing being enabled
+	 * @param enabled true to time the phases, otherwise false
+	 */
+	public void setEnabled(boolean enabled)
+	{
+		if (enabled && !this.enabled)
+		{
+			for (SampleWindow window : this.windows)
+				window.clear();
+		}
+
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Checks whether the phases are being timed
+	 * @return true if timing is enabled
+	 */
+	public boolean isEnabled()
+	{
+		return this.enabled;
+	}
+
+	/**
+	 * Marks the start of a phase
+	 * @return the start time, to be passed to {@link #stop(Phase, long)}
+	 */
+	public long start()
+	{
+		return this.enabled ? System.nanoTime() : NOT_TIMED;
+	}
+
+	/**
+	 * Marks the end of a phase, recording its duration
+	 * @param phase the phase
+	 * @param start the start time, as returned by {@link #start()}
+	 */
+	public void stop(Phase phase, long start)
+	{
+		if (start == NOT_TIMED)
+			return;
+
+		this.windows[phase.ordinal()].add(System.nanoTime() - start);
+	}
+
+	/**
+	 * Calculates the statistics of the recent durations of a phase
+	 * @param phase the phase
+	 * @return the statistics, in nanoseconds
+	 */
+	public SampleStats getStats(Phase phase)
+	{
+		return this.windows[phase.ordinal()].getStats();
+	}
+}
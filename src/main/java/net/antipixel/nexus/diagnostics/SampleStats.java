@@ -0,0 +1,35 @@
+package net.antipixel.nexus.diagnostics;
+
+import lombok.Getter;
+
+/**
+ * The statistics of the recent samples of some measurement, such as the
+ * durations of a phase or the bytes allocated by a handler. Instances are immutable
+ * @author Antipixel
+ */
+@Getter
+public class SampleStats
+{
+	private final long count;
+	private final long mean;
+	private final long p50;
+	private final long p95;
+	private final long max;
+
+	/**
+	 * Creates the statistics of some samples
+	 * @param count the number of samples taken in total, including those no longer held
+	 * @param mean the mean of the recent samples
+	 * @param p50 the median of the recent samples
+	 * @param p95 the 95th percentile of the recent samples
+	 * @param max the largest of the recent samples
+	 */
+	public SampleStats(long count, long mean, long p50, long p95, long max)
+	{
+		this.count = count;
+		this.mean = mean;
+		this.p50 = p50;
+		this.p95 = p95;
+		this.max = max;
+	}
+}
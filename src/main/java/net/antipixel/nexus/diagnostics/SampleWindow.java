@@ -0,0 +1,79 @@
+package net.antipixel.nexus.diagnostics;
+
+import java.util.Arrays;
+
+/**
+ * Holds the most recent samples of some measurement in a ring buffer,
+ * from which the percentiles are calculated upon request. Samples are
+ * added on the client thread and read on the render thread, so each of
+ * the methods is synchronised
+ * @author Antipixel
+ */
+public class SampleWindow
+{
+	private final long[] samples;
+	private final long[] sorted;
+	private int next;
+	private int size;
+	private long count;
+
+	/**
+	 * Constructs a new, empty window
+	 * @param capacity the number of recent samples kept
+	 */
+	public SampleWindow(int capacity)
+	{
+		this.samples = new long[capacity];
+		this.sorted = new long[capacity];
+	}
+
+	/**
+	 * Adds a sample, replacing the oldest sample should the window be full
+	 * @param sample the sample
+	 */
+	public synchronized void add(long sample)
+	{
+		this.samples[this.next] = sample;
+		this.next = (this.next + 1) % this.samples.length;
+		this.size = Math.min(this.size + 1, this.samples.length);
+		this.count++;
+	}
+
+	/**
+	 * Removes every sample
+	 */
+	public synchronized void clear()
+	{
+		this.next = 0;
+		this.size = 0;
+		this.count = 0;
+	}
+
+	/**
+	 * Calculates the statistics of the samples in the window
+	 * @return the statistics
+	 */
+	public synchronized SampleStats getStats()
+	{
+		if (this.size == 0)
+			return new SampleStats(0, 0, 0, 0, 0);
+
+		System.arraycopy(this.samples, 0, this.sorted, 0, this.size);
+		Arrays.sort(this.sorted, 0, this.size);
+
+		long total = 0;
+
+		for (int i = 0; i < this.size; i++)
+			total += this.sorted[i];
+
+		return new SampleStats(this.count, total / this.size,
+			this.percentile(50), this.percentile(95), this.sorted[this.size - 1]);
+	}
+
+	private long percentile(int percent)
+	{
+		// Nearest rank, on the sorted samples
+		int rank = (int) Math.ceil(percent / 100.0 * this.size);
+		return this.sorted[Math.max(0, rank - 1)];
+	}
+}
@@ -0,0 +1,50 @@
+package net.antipixel.nexus.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * Recorded once the plugin has started up, spanning the loading of the
+ * definitions and the decoding of the sprites in the background, through
+ * to the sprites being installed on the client thread. Begins upon creation
+ * @author Antipixel
+ */
+@Name("net.antipixel.nexus.StartUp")
+@Label("Nexus Start Up")
+@Category({"RuneLite", "Nexus Menu Map"})
+@Description("Loading of the definitions and sprites, until the map is ready to be displayed")
+@Setter
+public class StartUpEvent extends Event
+{
+	/* The type of the event, held so it can be checked without creating an event */
+	private static final EventType TYPE = EventType.getEventType(StartUpEvent.class);
+
+	@Label("Regions")
+	private int regionCount;
+
+	@Label("Teleports")
+	private int teleportCount;
+
+	@Label("Sprites")
+	private int spriteCount;
+
+	public StartUpEvent()
+	{
+		this.begin();
+	}
+
+	/**
+	 * Checks whether any recording enables the event, so that
+	 * the event needn't be created while none does
+	 * @return true if the event is enabled, otherwise false
+	 */
+	public static boolean isRecorded()
+	{
+		return TYPE.isEnabled();
+	}
+}
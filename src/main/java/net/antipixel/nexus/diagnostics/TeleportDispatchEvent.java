@@ -0,0 +1,50 @@
+package net.antipixel.nexus.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * Recorded once a teleport has been triggered, spanning the wait for the
+ * script to be run on the client thread and the running of the script,
+ * and so committed on the client thread. Begins upon creation
+ * @author Antipixel
+ */
+@Name("net.antipixel.nexus.TeleportDispatch")
+@Label("Nexus Teleport Dispatch")
+@Category({"RuneLite", "Nexus Menu Map"})
+@Description("Dispatch of a teleport, from it being selected until its key script has run")
+@Setter
+public class TeleportDispatchEvent extends Event
+{
+	/* The type of the event, held so it can be checked without creating an event */
+	private static final EventType TYPE = EventType.getEventType(TeleportDispatchEvent.class);
+
+	@Label("Teleport")
+	private String teleportName;
+
+	@Label("Alternate")
+	private boolean alternate;
+
+	@Label("Child Index")
+	private int childIndex;
+
+	public TeleportDispatchEvent()
+	{
+		this.begin();
+	}
+
+	/**
+	 * Checks whether any recording enables the event, so that
+	 * the event needn't be created while none does
+	 * @return true if the event is enabled, otherwise false
+	 */
+	public static boolean isRecorded()
+	{
+		return TYPE.isEnabled();
+	}
+}
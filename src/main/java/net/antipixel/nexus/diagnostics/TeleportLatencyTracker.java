@@ -0,0 +1,272 @@
+package net.antipixel.nexus.diagnostics;
+
+import javax.inject.Singleton;
+
+/**
+ * Measures the latency from a teleport being selected to the game acting
+ * upon it, separately for each of the ways in which a teleport can be
+ * selected, as well as over every way combined. The following are recorded:
+ * <ul>
+ * <li>the latency until the Nexus menu is closed by the game, along with
+ * the number of client frames drawn in the meantime</li>
+ * <li>the latency until the first game tick after the menu has been closed</li>
+ * </ul>
+ * Teleports selected from the map are triggered by their key script, so
+ * the menu closing before the script has run isn't recorded. Only one
+ * teleport is tracked at a time, a later selection replacing an earlier
+ * one. Selections are made upon the client thread, those made by shortcut
+ * key being passed over from the AWT thread along with the time at which
+ * they were made. Each of the methods is synchronised, as the latencies
+ * are read by the diagnostics overlay and the JMX metrics
+ * @author Antipixel
+ */
+@Singleton
+public class TeleportLatencyTracker
+{
+	private final PathLatencies[] latencies;
+	private final PathLatencies combinedLatencies;
+	private volatile boolean enabled;
+
+	/* The teleport being tracked, or null if there's none */
+	private TeleportPath pendingPath;
+	private long selectedTime;
+	private boolean scriptRun;
+	private boolean closed;
+	private int frames;
+
+	/**
+	 * Constructs a new tracker, which is initially disabled
+	 */
+	public TeleportLatencyTracker()
+	{
+		TeleportPath[] paths = TeleportPath.values();
+		this.latencies = new PathLatencies[paths.length];
+
+		for (int i = 0; i < paths.length; i++)
+			this.latencies[i] = new PathLatencies();
+
+		this.combinedLatencies = new PathLatencies();
+	}
+
+	/**
+	 * Enables or disables tracking. The latencies recorded
+	 * so far are discarded upon tracking being enabled
+	 * @param enabled true to track the teleports, otherwise false
+	 */
+	public synchronized void setEnabled(boolean enabled)
+	{
+		if (enabled && !this.enabled)
+		{
+			for (PathLatencies pathLatencies : this.latencies)
+				pathLatencies.clear();
+
+			this.combinedLatencies.clear();
+		}
+
+		this.enabled = enabled;
+		this.pendingPath = null;
+	}
+
+	/**
+	 * Checks whether the teleports are being tracked
+	 * @return true if tracking is enabled
+	 */
+	public boolean isEnabled()
+	{
+		return this.enabled;
+	}
+
+	/**
+	 * Checks whether a teleport is being tracked
+	 * @return true if a teleport has been selected, and is yet to be followed by a game tick
+	 */
+	public synchronized boolean isPending()
+	{
+		return this.pendingPath != null;
+	}
+
+	/**
+	 * Begins tracking a teleport, upon it being selected
+	 * @param path the way in which the teleport was selected
+	 */
+	public void selected(TeleportPath path)
+	{
+		this.selected(path, System.nanoTime());
+	}
+
+	/**
+	 * Begins tracking a teleport, which was selected at the given time
+	 * @param path the way in which the teleport was selected
+	 * @param selectedTime the time at which the teleport was selected, as per {@link System#nanoTime()}
+	 */
+	public synchronized void selected(TeleportPath path, long selectedTime)
+	{
+		if (!this.enabled)
+			return;
+
+		this.pendingPath = path;
+		this.selectedTime = selectedTime;
+		this.scriptRun = false;
+		this.closed = false;
+		this.frames = 0;
+	}
+
+	/**
+	 * Records the key script of the teleport being run, after which
+	 * the menu closing is taken to be the teleport being triggered
+	 */
+	public synchronized void scriptRun()
+	{
+		if (this.pendingPath != null)
+			this.scriptRun = true;
+	}
+
+	/**
+	 * Counts a client frame, should the menu have yet
+	 * to be closed since the teleport was selected
+	 */
+	public synchronized void frame()
+	{
+		if (this.pendingPath != null && !this.closed)
+			this.frames++;
+	}
+
+	/**
+	 * Records the Nexus menu being closed. A teleport selected from the map
+	 * is triggered by its key script, so the menu closing before the script
+	 * has run, such as upon the mode of the portal being switched, is ignored
+	 * @return true if the next game tick is to be recorded
+	 */
+	public synchronized boolean interfaceClosed()
+	{
+		if (this.pendingPath == null || this.closed)
+			return false;
+
+		if (this.pendingPath == TeleportPath.MAP && !this.scriptRun)
+			return false;
+
+		long latency = System.nanoTime() - this.selectedTime;
+		this.get(this.pendingPath).recordClose(latency, this.frames);
+		this.combinedLatencies.recordClose(latency, this.frames);
+
+		this.closed = true;
+		return true;
+	}
+
+	/**
+	 * Records a game tick, completing the tracking of
+	 * the teleport should the menu have been closed
+	 */
+	public synchronized void gameTick()
+	{
+		if (this.pendingPath == null || !this.closed)
+			return;
+
+		long latency = System.nanoTime() - this.selectedTime;
+		this.get(this.pendingPath).tickLatency.record(latency);
+		this.combinedLatencies.tickLatency.record(latency);
+		this.pendingPath = null;
+	}
+
+	/**
+	 * Stops tracking the teleport, should it not have been triggered after all
+	 */
+	public synchronized void cancel()
+	{
+		this.pendingPath = null;
+	}
+
+	/**
+	 * Gets the latencies from selection to the menu being closed
+	 * @param path the way in which the teleports were selected
+	 * @return the histogram of the latencies
+	 */
+	public LatencyHistogram getCloseLatency(TeleportPath path)
+	{
+		return this.get(path).closeLatency;
+	}
+
+	/**
+	 * Gets the latencies from selection to the first game tick after the menu was closed
+	 * @param path the way in which the teleports were selected
+	 * @return the histogram of the latencies
+	 */
+	public LatencyHistogram getTickLatency(TeleportPath path)
+	{
+		return this.get(path).tickLatency;
+	}
+
+	/**
+	 * Gets the mean number of client frames from selection to the menu being closed
+	 * @param path the way in which the teleports were selected
+	 * @return the mean frame count, or 0 if no teleports have been recorded
+	 */
+	public synchronized double getMeanFramesToClose(TeleportPath path)
+	{
+		return this.get(path).getMeanFramesToClose();
+	}
+
+	/**
+	 * Gets the latencies from selection to the menu being closed,
+	 * over the teleports selected in every way
+	 * @return the histogram of the latencies
+	 */
+	public LatencyHistogram getCloseLatency()
+	{
+		return this.combinedLatencies.closeLatency;
+	}
+
+	/**
+	 * Gets the latencies from selection to the first game tick after the
+	 * menu was closed, over the teleports selected in every way
+	 * @return the histogram of the latencies
+	 */
+	public LatencyHistogram getTickLatency()
+	{
+		return this.combinedLatencies.tickLatency;
+	}
+
+	/**
+	 * Gets the mean number of client frames from selection to the menu
+	 * being closed, over the teleports selected in every way
+	 * @return the mean frame count, or 0 if no teleports have been recorded
+	 */
+	public synchronized double getMeanFramesToClose()
+	{
+		return this.combinedLatencies.getMeanFramesToClose();
+	}
+
+	private PathLatencies get(TeleportPath path)
+	{
+		return this.latencies[path.ordinal()];
+	}
+
+	/**
+	 * The latencies of the teleports selected in one particular way, or in every way
+	 */
+	private static class PathLatencies
+	{
+		private final LatencyHistogram closeLatency = new LatencyHistogram();
+		private final LatencyHistogram tickLatency = new LatencyHistogram();
+		private long framesToClose;
+
+		private void recordClose(long latency, int frames)
+		{
+			this.closeLatency.record(latency);
+			this.framesToClose += frames;
+		}
+
+		private double getMeanFramesToClose()
+		{
+			long count = this.closeLatency.getCount();
+			return (count == 0) ? 0 : (double) this.framesToClose / count;
+		}
+
+		private void clear()
+		{
+			this.closeLatency.clear();
+			this.tickLatency.clear();
+			this.framesToClose = 0;
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package net.antipixel.nexus.diagnostics;
+
+/**
+ * The ways in which a teleport can be selected from the Nexus menu
+ * @author Antipixel
+ */
+public enum TeleportPath
+{
+	MAP("Map"),
+	LIST("List"),
+	SHORTCUT("Shortcut");
+
+	private final String value;
+
+	TeleportPath(String value)
+	{
+		this.value = value;
+	}
+
+	@Override
+	public String toString()
+	{
+		return this.value;
+	}
+}
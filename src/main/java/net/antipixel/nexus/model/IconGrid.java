@@ -0,0 +1,110 @@
+package net.antipixel.nexus.model;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A spatial index over the teleport icons of a region map, used to find the
+ * icon beneath the mouse without testing every icon. The map is divided into a
+ * grid of square cells, each of which lists the icons overlapping it, so a lookup
+ * only tests the few icons in a single cell. Instances are immutable
+ * @author Antipixel
+ */
+public class IconGrid
+{
+	private static final int CELL_SIZE = 32;
+	private static final int[] NO_ICONS = new int[0];
+
+	private final int columns;
+	private final int rows;
+	private final int iconSize;
+	private final int[] iconX;
+	private final int[] iconY;
+	private final int[][] cells;
+
+	/**
+	 * Builds the grid for the given icons, each of which is a square of the same size
+	 * @param width the width of the map
+	 * @param height the height of the map
+	 * @param iconX the x position of each icon, relative to the map
+	 * @param iconY the y position of each icon, relative to the map
+	 * @param iconSize the width and height of the icons
+	 */
+	public IconGrid(int width, int height, int[] iconX, int[] iconY, int iconSize)
+	{
+		this.columns = (width + CELL_SIZE - 1) / CELL_SIZE;
+		this.rows = (height + CELL_SIZE - 1) / CELL_SIZE;
+		this.iconSize = iconSize;
+		this.iconX = iconX.clone();
+		this.iconY = iconY.clone();
+		this.cells = new int[this.columns * this.rows][];
+
+		// Count the icons overlapping each cell, then fill the cells
+		int[] counts = new int[this.cells.length];
+
+		for (int i = 0; i < iconX.length; i++)
+			this.forEachCell(i, cell -> counts[cell]++);
+
+		for (int cell = 0; cell < this.cells.length; cell++)
+			this.cells[cell] = (counts[cell] == 0) ? NO_ICONS : new int[counts[cell]];
+
+		int[] filled = new int[this.cells.length];
+
+		for (int i = 0; i < iconX.length; i++)
+		{
+			final int icon = i;
+			this.forEachCell(i, cell -> this.cells[cell][filled[cell]++] = icon);
+		}
+	}
+
+	/**
+	 * Finds the icon at the given position. Where icons overlap, the icon
+	 * drawn last, being the one with the highest index, is returned
+	 * @param x the x position, relative to the map
+	 * @param y the y position, relative to the map
+	 * @return the index of the icon, or -1 if there's no icon at the position
+	 */
+	public int find(int x, int y)
+	{
+		if (x < 0 || y < 0)
+			return -1;
+
+		int column = x / CELL_SIZE;
+		int row = y / CELL_SIZE;
+
+		if (column >= this.columns || row >= this.rows)
+			return -1;
+
+		int[] icons = this.cells[row * this.columns + column];
+
+		// The icons of each cell are in ascending order, so search from the end
+		for (int i = icons.length - 1; i >= 0; i--)
+		{
+			int icon = icons[i];
+
+			if (x >= this.iconX[icon] && x < this.iconX[icon] + this.iconSize
+				&& y >= this.iconY[icon] && y < this.iconY[icon] + this.iconSize)
+				return icon;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Visits each of the cells overlapped by an icon
+	 * @param icon the index of the icon
+	 * @param visitor the visitor, which is given the index of each cell
+	 */
+	private void forEachCell(int icon, IntConsumer visitor)
+	{
+		int firstColumn = Math.max(0, this.iconX[icon] / CELL_SIZE);
+		int firstRow = Math.max(0, this.iconY[icon] / CELL_SIZE);
+		int lastColumn = Math.min(this.columns - 1, (this.iconX[icon] + this.iconSize - 1) / CELL_SIZE);
+		int lastRow = Math.min(this.rows - 1, (this.iconY[icon] + this.iconSize - 1) / CELL_SIZE);
+
+		for (int row = firstRow; row <= lastRow; row++)
+		{
+			for (int column = firstColumn; column <= lastColumn; column++)
+				visitor.accept(row * this.columns + column);
+		}
+	}
+}
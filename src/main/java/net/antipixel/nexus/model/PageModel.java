@@ -0,0 +1,155 @@
+package net.antipixel.nexus.model;
+
+import java.util.function.IntFunction;
+import net.antipixel.nexus.definition.IconDefinition;
+import net.antipixel.nexus.definition.RegionDefinition;
+import net.antipixel.nexus.definition.TeleportDefinition;
+import net.antipixel.nexus.ui.MenuAction;
+
+/**
+ * The layout of the index and map pages of the Nexus menu, resolved from the
+ * definitions. The model is immutable, so it may be built on a background thread
+ * ahead of the menu being opened, leaving only the widgets to be created upon opening.
+ * Teleports are indexed in the order in which they're defined, region by region
+ * @author Antipixel
+ */
+public class PageModel
+{
+	/* Bounds of the region map within the Nexus window, and the size of the teleport icons */
+	public static final int MAP_X = 7;
+	public static final int MAP_Y = 35;
+	public static final int MAP_WIDTH = 478;
+	public static final int MAP_HEIGHT = 272;
+	public static final int TELEPORT_ICON_SIZE = 24;
+
+	private final RegionModel[] regions;
+	private final TeleportModel[] teleports;
+
+	/**
+	 * Creates a new page model
+	 * @param regions the region models
+	 * @param teleports the teleport models
+	 */
+	private PageModel(RegionModel[] regions, TeleportModel[] teleports)
+	{
+		this.regions = regions;
+		this.teleports = teleports;
+	}
+
+	/**
+	 * Builds the page model from the definitions
+	 * @param regionDefinitions the region definitions
+	 * @param teleportActions creates the callback for the menu action
+	 *                        of the teleport at the given index
+	 * @param alternateActions creates the callback for the menu action of the
+	 *                         teleport at the given index in the other mode
+	 * @return the page model
+	 */
+	public static PageModel build(RegionDefinition[] regionDefinitions, IntFunction<MenuAction> teleportActions,
+		IntFunction<MenuAction> alternateActions)
+	{
+		int teleportCount = 0;
+
+		for (RegionDefinition regionDef : regionDefinitions)
+			teleportCount += regionDef.getTeleports().length;
+
+		RegionModel[] regions = new RegionModel[regionDefinitions.length];
+		TeleportModel[] teleports = new TeleportModel[teleportCount];
+
+		int teleportIndex = 0;
+
+		for (int i = 0; i < regionDefinitions.length; i++)
+		{
+			RegionDefinition regionDef = regionDefinitions[i];
+			IconDefinition iconDef = regionDef.getIcon();
+			TeleportDefinition[] teleportDefs = regionDef.getTeleports();
+
+			// Index the teleport icons by their position on the map
+			int[] iconX = new int[teleportDefs.length];
+			int[] iconY = new int[teleportDefs.length];
+
+			for (int j = 0; j < teleportDefs.length; j++)
+			{
+				iconX[j] = teleportDefs[j].getSpriteX() - MAP_X;
+				iconY[j] = teleportDefs[j].getSpriteY() - MAP_Y;
+			}
+
+			IconGrid iconGrid = new IconGrid(MAP_WIDTH, MAP_HEIGHT, iconX, iconY, TELEPORT_ICON_SIZE);
+
+			regions[i] = new RegionModel(regionDef.getId(), regionDef.getName(),
+				regionDef.getIndexSprite(), regionDef.getMapSprite(),
+				iconDef.getX(), iconDef.getY(), iconDef.getSpriteStandard(), iconDef.getSpriteHover(),
+				teleportIndex, teleportDefs.length, iconGrid);
+
+			for (TeleportDefinition teleportDef : teleportDefs)
+			{
+				teleports[teleportIndex] = new TeleportModel(teleportDef.getSpriteX(), teleportDef.getSpriteY(),
+					getFormattedLocationName(teleportDef), teleportDef.getEnabledSprite(),
+					teleportDef.getDisabledSprite(), teleportActions.apply(teleportIndex),
+					alternateActions.apply(teleportIndex));
+
+				teleportIndex++;
+			}
+		}
+
+		return new PageModel(regions, teleports);
+	}
+
+	/**
+	 * Gets the number of regions
+	 * @return the region count
+	 */
+	public int getRegionCount()
+	{
+		return this.regions.length;
+	}
+
+	/**
+	 * Gets the model of a region
+	 * @param regionID the region ID
+	 * @return the region model
+	 */
+	public RegionModel getRegion(int regionID)
+	{
+		return this.regions[regionID];
+	}
+
+	/**
+	 * Gets the number of teleports, across all regions
+	 * @return the teleport count
+	 */
+	public int getTeleportCount()
+	{
+		return this.teleports.length;
+	}
+
+	/**
+	 * Gets the model of a teleport
+	 * @param teleportIndex the index of the teleport
+	 * @return the teleport model
+	 */
+	public TeleportModel getTeleport(int teleportIndex)
+	{
+		return this.teleports[teleportIndex];
+	}
+
+	/**
+	 * Creates a formatted string which is to be used as the name
+	 * for the teleport icons. The string contains the base name of
+	 * the teleport, and the alias name of the teleport, if is applicable.
+	 * @param teleportDefinition the teleport definition
+	 * @return the formatted string
+	 */
+	private static String getFormattedLocationName(TeleportDefinition teleportDefinition)
+	{
+		// Create the base name
+		String name = teleportDefinition.getName();
+
+		// If this location has an alias, append it to the
+		// end of the name string, enclosed in parenthesis
+		if (teleportDefinition.hasAlias())
+			name += " (" + teleportDefinition.getAlias() + ")";
+
+		return name;
+	}
+}
@@ -0,0 +1,63 @@
+package net.antipixel.nexus.model;
+
+import lombok.Getter;
+
+/**
+ * The layout of a region on the index page, and of its map page, resolved
+ * from its definition ahead of the Nexus menu being opened. Instances are immutable
+ * @author Antipixel
+ */
+@Getter
+public class RegionModel
+{
+	private final int id;
+	private final String name;
+	private final int indexSprite;
+	private final int mapSprite;
+	private final int iconX;
+	private final int iconY;
+	private final int iconSprite;
+	private final int iconHoverSprite;
+	private final int firstTeleport;
+	private final int teleportCount;
+	private final IconGrid iconGrid;
+
+	/**
+	 * Creates a new region model
+	 * @param id the region ID
+	 * @param name the region name
+	 * @param indexSprite the sprite ID of the region on the index page
+	 * @param mapSprite the sprite ID of the region map
+	 * @param iconX the x position of the region icon
+	 * @param iconY the y position of the region icon
+	 * @param iconSprite the standard sprite ID of the region icon
+	 * @param iconHoverSprite the sprite ID of the region icon on hover
+	 * @param firstTeleport the index of the first teleport of the region
+	 * @param teleportCount the number of teleports in the region
+	 * @param iconGrid the spatial index of the teleport icons on the region map
+	 */
+	public RegionModel(int id, String name, int indexSprite, int mapSprite, int iconX, int iconY,
+		int iconSprite, int iconHoverSprite, int firstTeleport, int teleportCount, IconGrid iconGrid)
+	{
+		this.id = id;
+		this.name = name;
+		this.indexSprite = indexSprite;
+		this.mapSprite = mapSprite;
+		this.iconX = iconX;
+		this.iconY = iconY;
+		this.iconSprite = iconSprite;
+		this.iconHoverSprite = iconHoverSprite;
+		this.firstTeleport = firstTeleport;
+		this.teleportCount = teleportCount;
+		this.iconGrid = iconGrid;
+	}
+
+	/**
+	 * Checks whether the region has any teleports, and so an icon on the index page
+	 * @return true if the region has teleports, otherwise false
+	 */
+	public boolean hasTeleports()
+	{
+		return this.teleportCount > 0;
+	}
+}
@@ -0,0 +1,44 @@
+package net.antipixel.nexus.model;
+
+import lombok.Getter;
+import net.antipixel.nexus.ui.MenuAction;
+
+/**
+ * The layout of a teleport icon on a map page, resolved from its
+ * definition ahead of the Nexus menu being opened. Instances are immutable
+ * @author Antipixel
+ */
+@Getter
+public class TeleportModel
+{
+	private final int x;
+	private final int y;
+	private final String name;
+	private final int enabledSprite;
+	private final int disabledSprite;
+	private final MenuAction action;
+	private final MenuAction alternateAction;
+
+	/**
+	 * Creates a new teleport model
+	 * @param x the x position of the icon
+	 * @param y the y position of the icon
+	 * @param name the teleport name, formatted with its alias
+	 * @param enabledSprite the sprite ID of the icon when available
+	 * @param disabledSprite the sprite ID of the icon when unavailable
+	 * @param action the callback for the menu action of the icon
+	 * @param alternateAction the callback for the menu action of the icon
+	 *                        which uses the portal in the other mode
+	 */
+	public TeleportModel(int x, int y, String name, int enabledSprite, int disabledSprite,
+		MenuAction action, MenuAction alternateAction)
+	{
+		this.x = x;
+		this.y = y;
+		this.name = name;
+		this.enabledSprite = enabledSprite;
+		this.disabledSprite = disabledSprite;
+		this.action = action;
+		this.alternateAction = alternateAction;
+	}
+}
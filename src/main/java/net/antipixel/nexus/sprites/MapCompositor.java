@@ -0,0 +1,346 @@
+package net.antipixel.nexus.sprites;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+import lombok.extern.slf4j.Slf4j;
+import net.antipixel.nexus.model.PageModel;
+import net.antipixel.nexus.model.RegionModel;
+import net.antipixel.nexus.model.TeleportModel;
+import net.runelite.api.Client;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.game.SpriteManager;
+
+/**
+ * Bakes a region map and its teleport icons into a single sprite, so that the
+ * map page can be drawn as one widget rather than one widget per teleport. The
+ * composited sprites are installed as sprite overrides and cached by the region
+ * and the teleports available in it, so each combination is only drawn once.
+ * Every sprite is given a new ID, as the client caches sprites by ID. The images of
+ * the custom sprites are those decoded upon start up, so drawing a composite never
+ * decodes an image. The composites are drawn and converted to pixels upon a
+ * background thread, and installed upon the client thread once drawn. All methods
+ * must be called on the client thread, other than those reporting the sprites
+ * installed, which are read by the metrics over JMX
+ * @author Antipixel
+ */
+@Slf4j
+public class MapCompositor
+{
+	/* The composited sprites are given IDs counting down from here */
+	private static final int FIRST_SPRITE_ID = -20000;
+
+	/* The number of composited sprites to keep installed at once */
+	private static final int MAX_CACHED_SPRITES = 32;
+
+	private final Client client;
+	private final ClientThread clientThread;
+	private final Executor executor;
+	private final SpriteManager spriteManager;
+	private final IntConsumer installListener;
+
+	/* The images drawn onto the maps, keyed by sprite ID. The custom sprites are
+	   given upon construction, whereas the game sprites are read upon first use */
+	private final Map<Integer, BufferedImage> sourceImages;
+
+	/* The installed sprite IDs, least recently used first, and the composites being drawn */
+	private final LinkedHashMap<CompositeKey, Integer> composites;
+	private final Set<CompositeKey> pending;
+
+	/* Reused to look up the composites, so a lookup allocates nothing */
+	private final CompositeKey probe;
+
+	private int nextSpriteID;
+	private boolean cleared;
+
+	/* The number of composited sprites installed, published for threads other than the client thread */
+	private volatile int spriteCount;
+
+	/**
+	 * Creates a new map compositor
+	 * @param client the client
+	 * @param clientThread the client thread, upon which the drawn composites are installed
+	 * @param executor the executor upon which the composites are drawn
+	 * @param spriteManager the sprite manager, from which the game sprites are read
+	 * @param spriteDefinitions the custom sprites
+	 * @param spriteImages the decoded images of the custom sprites, in the order of the definitions
+	 * @param installListener called on the client thread with the region ID of each composite installed
+	 */
+	public MapCompositor(Client client, ClientThread clientThread, Executor executor, SpriteManager spriteManager,
+		SpriteDefinition[] spriteDefinitions, BufferedImage[] spriteImages, IntConsumer installListener)
+	{
+		this.client = client;
+		this.clientThread = clientThread;
+		this.executor = executor;
+		this.spriteManager = spriteManager;
+		this.installListener = installListener;
+		this.sourceImages = new HashMap<>();
+		this.composites = new LinkedHashMap<>(16, 0.75f, true);
+		this.pending = new HashSet<>();
+		this.probe = new CompositeKey(-1, null);
+		this.nextSpriteID = FIRST_SPRITE_ID;
+
+		for (int i = 0; i < spriteDefinitions.length; i++)
+			this.sourceImages.put(spriteDefinitions[i].getSpriteId(), spriteImages[i]);
+	}
+
+	/**
+	 * Gets the composited sprite for a region, as drawn for the teleports available.
+	 * Should there be none, it's drawn in the background, and the install listener
+	 * called once it's installed. Available teleports are drawn with their enabled
+	 * sprite, and all others with their disabled sprite
+	 * @param model the page model
+	 * @param regionID the region ID
+	 * @param available the teleports of the region which are available, indexed
+	 *                  from the first teleport of the region
+	 * @return the ID of the composited sprite, or -1 if it's yet to be drawn
+	 */
+	public int getCompositeSprite(PageModel model, int regionID, BitSet available)
+	{
+		Integer spriteID = this.composites.get(this.probe.set(regionID, available));
+
+		if (spriteID != null)
+			return spriteID;
+
+		this.prepare(model, regionID, available);
+		return -1;
+	}
+
+	/**
+	 * Draws the composited sprite for a region in the background, ahead of it
+	 * being displayed, unless it's already installed or being drawn
+	 * @param model the page model
+	 * @param regionID the region ID
+	 * @param available the teleports of the region which are available, indexed
+	 *                  from the first teleport of the region
+	 */
+	public void prepare(PageModel model, int regionID, BitSet available)
+	{
+		this.probe.set(regionID, available);
+
+		if (this.cleared || this.composites.containsKey(this.probe) || this.pending.contains(this.probe))
+			return;
+
+		// Copy the availability, as the caller may reuse the bit set
+		CompositeKey key = new CompositeKey(regionID, (BitSet) available.clone());
+		this.pending.add(key);
+
+		// The sprite manager may only be used on the client thread, so the images are gathered here
+		RegionModel region = model.getRegion(regionID);
+		BufferedImage mapImage = this.getSourceImage(region.getMapSprite());
+		BufferedImage[] iconImages = new BufferedImage[region.getTeleportCount()];
+
+		for (int i = 0; i < iconImages.length; i++)
+		{
+			TeleportModel teleport = model.getTeleport(region.getFirstTeleport() + i);
+			iconImages[i] = this.getSourceImage(available.get(i) ? teleport.getEnabledSprite() : teleport.getDisabledSprite());
+		}
+
+		CompletableFuture.supplyAsync(() -> toPixels(draw(model, region, mapImage, iconImages)), this.executor)
+			.whenComplete((pixels, ex) -> this.clientThread.invoke(() -> this.install(key, pixels, ex)));
+	}
+
+	/**
+	 * Installs a composite once drawn, removing the least recently used should the cache be full
+	 * @param key the key of the composite
+	 * @param pixels the pixels of the composite, or null if it couldn't be drawn
+	 * @param ex the exception thrown while drawing, or null if it was drawn
+	 */
+	private void install(CompositeKey key, int[] pixels, Throwable ex)
+	{
+		this.pending.remove(key);
+
+		if (this.cleared)
+			return;
+
+		if (ex != null)
+		{
+			log.warn("Unable to composite the map of region {}", key.regionID, ex);
+			return;
+		}
+
+		// Make room for the new sprite, removing the least recently used
+		if (this.composites.size() >= MAX_CACHED_SPRITES)
+		{
+			Iterator<Integer> eldest = this.composites.values().iterator();
+			this.client.getSpriteOverrides().remove(eldest.next());
+			eldest.remove();
+		}
+
+		int spriteID = this.nextSpriteID--;
+
+		this.client.getSpriteOverrides().put(spriteID,
+			this.client.createSpritePixels(pixels, PageModel.MAP_WIDTH, PageModel.MAP_HEIGHT));
+
+		this.composites.put(key, spriteID);
+		this.spriteCount = this.composites.size();
+		this.installListener.accept(key.regionID);
+	}
+
+	/**
+	 * Gets the number of composited sprites currently installed. May be called on any thread
+	 * @return the sprite count
+	 */
+	public int getSpriteCount()
+	{
+		return this.spriteCount;
+	}
+
+	/**
+	 * Estimates the memory held by the composited sprites currently installed.
+	 * May be called on any thread
+	 * @return the estimated size of the pixels of the sprites, in bytes
+	 */
+	public long getSpriteBytes()
+	{
+		return (long) this.getSpriteCount() * PageModel.MAP_WIDTH * PageModel.MAP_HEIGHT * SpriteLoader.BYTES_PER_PIXEL;
+	}
+
+	/**
+	 * Removes all of the composited sprites, and releases the images drawn onto
+	 * them. Any composite still being drawn is discarded once drawn. The
+	 * compositor is no longer to be used once cleared
+	 */
+	public void clear()
+	{
+		for (Integer spriteID : this.composites.values())
+			this.client.getSpriteOverrides().remove(spriteID);
+
+		this.cleared = true;
+		this.composites.clear();
+		this.pending.clear();
+		this.sourceImages.clear();
+		this.spriteCount = 0;
+	}
+
+	/**
+	 * Draws the region map, with the teleport icons on top. Called on a background thread
+	 * @param model the page model
+	 * @param region the region
+	 * @param mapImage the image of the region map, or null if it couldn't be found
+	 * @param iconImages the image of each teleport icon of the region, or null for any not found
+	 * @return the composited image
+	 */
+	private static BufferedImage draw(PageModel model, RegionModel region, BufferedImage mapImage,
+		BufferedImage[] iconImages)
+	{
+		BufferedImage image = new BufferedImage(PageModel.MAP_WIDTH, PageModel.MAP_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = image.createGraphics();
+
+		try
+		{
+			if (mapImage != null)
+				graphics.drawImage(mapImage, 0, 0, null);
+
+			// Draw the icons in the order of the teleport definitions, as the widgets would be layered
+			for (int i = 0; i < iconImages.length; i++)
+			{
+				TeleportModel teleport = model.getTeleport(region.getFirstTeleport() + i);
+
+				if (iconImages[i] != null)
+					graphics.drawImage(iconImages[i], teleport.getX() - PageModel.MAP_X, teleport.getY() - PageModel.MAP_Y, null);
+			}
+		}
+		finally
+		{
+			graphics.dispose();
+		}
+
+		return image;
+	}
+
+	/**
+	 * Reads the pixels of a composited image, as held by a sprite override.
+	 * Called on a background thread
+	 * @param image the composited image
+	 * @return the pixels, with those fully transparent cleared, as the client
+	 * only treats a pixel of zero as transparent
+	 */
+	private static int[] toPixels(BufferedImage image)
+	{
+		int[] pixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+
+		for (int i = 0; i < pixels.length; i++)
+		{
+			if ((pixels[i] & 0xFF000000) == 0)
+				pixels[i] = 0;
+		}
+
+		return pixels;
+	}
+
+	/**
+	 * Gets the image of a sprite, either a custom sprite decoded upon start up,
+	 * or a game sprite read from the sprite manager and kept for the next time it's drawn
+	 * @param spriteID the sprite ID
+	 * @return the image, or null if the sprite couldn't be found
+	 */
+	private BufferedImage getSourceImage(int spriteID)
+	{
+		BufferedImage image = this.sourceImages.get(spriteID);
+
+		if (image != null)
+			return image;
+
+		image = this.spriteManager.getSprite(spriteID, 0);
+
+		if (image != null)
+			this.sourceImages.put(spriteID, image);
+
+		return image;
+	}
+
+	/**
+	 * Identifies a composited sprite by its region and the teleports available in it.
+	 * Only the probe is ever changed, the keys held by the cache being left as created
+	 */
+	private static class CompositeKey
+	{
+		private int regionID;
+		private BitSet available;
+
+		CompositeKey(int regionID, BitSet available)
+		{
+			this.regionID = regionID;
+			this.available = available;
+		}
+
+		/**
+		 * Points the key at another composite, for it to be looked up
+		 * @param regionID the region ID
+		 * @param available the teleports of the region which are available
+		 * @return the key
+		 */
+		CompositeKey set(int regionID, BitSet available)
+		{
+			this.regionID = regionID;
+			this.available = available;
+			return this;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof CompositeKey))
+				return false;
+
+			CompositeKey other = (CompositeKey) o;
+			return this.regionID == other.regionID && this.available.equals(other.available);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * this.regionID + this.available.hashCode();
+		}
+	}
+}
@@ -4,8 +4,8 @@ import lombok.Getter;
 import net.runelite.client.game.SpriteOverride;
 
 /**
- * Sprite IDs and file names are loaded up into this class directly
- * from a JSON file, creating custom sprites from PNG files
+ * Sprite IDs and file names are compiled into this class from a
+ * JSON file at build time, creating custom sprites from PNG files
  * @author Antipixel
  */
 @Getter
@@ -13,4 +13,15 @@ public class SpriteDefinition implements SpriteOverride
 {
 	private int spriteId;
 	private String fileName;
+
+	/**
+	 * Creates a new sprite definition
+	 * @param spriteId the ID of the custom sprite
+	 * @param fileName the file name of the PNG image for the sprite
+	 */
+	public SpriteDefinition(int spriteId, String fileName)
+	{
+		this.spriteId = spriteId;
+		this.fileName = fileName;
+	}
 }
@@ -0,0 +1,119 @@
+package net.antipixel.nexus.sprites;
+
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import javax.imageio.ImageIO;
+import net.runelite.api.Client;
+import net.runelite.api.SpritePixels;
+import net.runelite.client.util.ImageUtil;
+
+/**
+ * Decodes the PNG images of the custom sprites in parallel, away from the
+ * client thread, and installs them as sprite overrides. The sprite manager
+ * would otherwise decode each of the images one after another on the client thread
+ * @author Antipixel
+ */
+public class SpriteLoader
+{
+	/* The sprite overrides hold each pixel as an int */
+	static final int BYTES_PER_PIXEL = 4;
+
+	/**
+	 * Decodes the image of each sprite definition, each as a separate task on the executor
+	 * @param spriteDefinitions the sprite definitions
+	 * @param executor the executor on which to decode the images
+	 * @return a future completing with the decoded images, in the
+	 * order of the definitions, once every image has been decoded
+	 */
+	public static CompletableFuture<BufferedImage[]> decodeAsync(SpriteDefinition[] spriteDefinitions, Executor executor)
+	{
+		BufferedImage[] images = new BufferedImage[spriteDefinitions.length];
+		CompletableFuture<?>[] tasks = new CompletableFuture<?>[spriteDefinitions.length];
+
+		for (int i = 0; i < spriteDefinitions.length; i++)
+		{
+			final int spriteIndex = i;
+
+			tasks[i] = CompletableFuture.runAsync(() ->
+				images[spriteIndex] = decode(spriteDefinitions[spriteIndex]), executor);
+		}
+
+		return CompletableFuture.allOf(tasks).thenApply(v -> images);
+	}
+
+	/**
+	 * Installs the decoded images as sprite overrides. Must be called on the client thread
+	 * @param client the client
+	 * @param spriteDefinitions the sprite definitions
+	 * @param images the decoded images, in the order of the definitions
+	 */
+	public static void install(Client client, SpriteDefinition[] spriteDefinitions, BufferedImage[] images)
+	{
+		Map<Integer, SpritePixels> overrides = client.getSpriteOverrides();
+
+		for (int i = 0; i < spriteDefinitions.length; i++)
+			overrides.put(spriteDefinitions[i].getSpriteId(), ImageUtil.getImageSpritePixels(images[i], client));
+	}
+
+	/**
+	 * Estimates the memory held by the sprite overrides of the given images
+	 * @param images the decoded images
+	 * @return the estimated size of the pixels of the overrides, in bytes
+	 */
+	public static long estimateBytes(BufferedImage[] images)
+	{
+		long bytes = 0;
+
+		for (BufferedImage image : images)
+			bytes += (long) image.getWidth() * image.getHeight() * BYTES_PER_PIXEL;
+
+		return bytes;
+	}
+
+	/**
+	 * Removes the sprite overrides. Must be called on the client thread
+	 * @param client the client
+	 * @param spriteDefinitions the sprite definitions
+	 */
+	public static void uninstall(Client client, SpriteDefinition[] spriteDefinitions)
+	{
+		Map<Integer, SpritePixels> overrides = client.getSpriteOverrides();
+
+		for (SpriteDefinition spriteDefinition : spriteDefinitions)
+			overrides.remove(spriteDefinition.getSpriteId());
+	}
+
+	/**
+	 * Decodes the PNG image of a sprite. Unlike the image utilities of the
+	 * client, which only decode a single image at a time, this doesn't lock
+	 * @param spriteDefinition the sprite definition
+	 * @return the decoded image
+	 */
+	public static BufferedImage decode(SpriteDefinition spriteDefinition)
+	{
+		String fileName = spriteDefinition.getFileName();
+
+		try (InputStream in = SpriteDefinition.class.getResourceAsStream(fileName))
+		{
+			if (in == null)
+				throw new FileNotFoundException("Missing sprite image " + fileName);
+
+			BufferedImage image = ImageIO.read(in);
+
+			if (image == null)
+				throw new IOException("Unreadable sprite image " + fileName);
+
+			return image;
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+}
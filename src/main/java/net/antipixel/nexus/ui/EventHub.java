@@ -0,0 +1,190 @@
+package net.antipixel.nexus.ui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.inject.Inject;
+import net.antipixel.nexus.diagnostics.AllocationMeter;
+import net.antipixel.nexus.diagnostics.Handler;
+import net.runelite.api.ScriptEvent;
+import net.runelite.api.widgets.JavaScriptCallback;
+import net.runelite.api.widgets.Widget;
+
+/**
+ * Dispatches the script events of the widgets created on a single layer to the
+ * components bound to them. Rather than each component holding its own listeners,
+ * the hub holds one listener for each type of event, shared by every widget, which
+ * looks up the component by the child index of the widget raising the event. The
+ * widgets are only given the listeners for the events their component handles,
+ * so the client doesn't run scripts for widgets which ignore the mouse. The hub
+ * also collects the components whose layout has changed, so that each of their
+ * widgets is revalidated once at the end of the frame, however often it changed.
+ * Being the single point through which every callback passes, the hub accounts
+ * for the allocations of the callbacks, should it be enabled
+ * @author Antipixel
+ */
+public class EventHub
+{
+	private static final int INITIAL_CAPACITY = 64;
+
+	/* The components, indexed by the child index of the widget they're bound to */
+	private UIComponent[] components;
+
+	/* The components whose widgets are awaiting revalidation */
+	private final List<UIComponent> dirtyComponents;
+
+	/* Accounts for the allocations of the callbacks */
+	private final AllocationMeter allocationMeter;
+
+	/* The number of widgets registered over the lifetime of the hub */
+	private volatile long widgetsRegistered;
+
+	/* Widget listeners, shared by every widget on the layer */
+	final JavaScriptCallback opListener = this::onOp;
+	final JavaScriptCallback hoverListener = this::onMouseOver;
+	final JavaScriptCallback leaveListener = this::onMouseLeave;
+	final JavaScriptCallback repeatListener = this::onMouseRepeat;
+
+	/**
+	 * Constructs a new event hub, with no components registered
+	 * @param allocationMeter the meter which accounts for the allocations of the callbacks
+	 */
+	@Inject
+	public EventHub(AllocationMeter allocationMeter)
+	{
+		this.components = new UIComponent[INITIAL_CAPACITY];
+		this.dirtyComponents = new ArrayList<>();
+		this.allocationMeter = allocationMeter;
+	}
+
+	/**
+	 * Registers the component as the receiver of the events of the given widget
+	 * @param component the component
+	 * @param widget the widget to which the component is bound
+	 */
+	void register(UIComponent component, Widget widget)
+	{
+		int index = widget.getIndex();
+
+		if (index < 0)
+			return;
+
+		// Grow the table to fit the index
+		if (index >= this.components.length)
+			this.components = Arrays.copyOf(this.components, Math.max(index + 1, this.components.length * 2));
+
+		this.components[index] = component;
+		this.widgetsRegistered++;
+	}
+
+	/**
+	 * Gets the number of widgets registered over the lifetime of the hub, one
+	 * being registered for each widget created for a component
+	 * @return the widget count
+	 */
+	public long getWidgetsRegistered()
+	{
+		return this.widgetsRegistered;
+	}
+
+	/**
+	 * Removes every registered component, which should be done whenever
+	 * the widgets of the layer are discarded by the client
+	 */
+	public void clear()
+	{
+		Arrays.fill(this.components, null);
+		this.dirtyComponents.clear();
+	}
+
+	/**
+	 * Queues the widget of a component to be revalidated upon the next call to {@link #revalidate()}
+	 * @param component the component whose layout has changed
+	 */
+	void markDirty(UIComponent component)
+	{
+		this.dirtyComponents.add(component);
+	}
+
+	/**
+	 * Revalidates the widgets of each of the components whose layout has
+	 * changed since the last call. Should be called once per client frame
+	 */
+	public void revalidate()
+	{
+		if (this.dirtyComponents.isEmpty())
+			return;
+
+		for (int i = 0; i < this.dirtyComponents.size(); i++)
+			this.dirtyComponents.get(i).revalidate();
+
+		this.dirtyComponents.clear();
+	}
+
+	/**
+	 * Finds the component bound to the widget which raised an event
+	 * @param e the script event
+	 * @return the component, or null if the widget has no attached component
+	 */
+	private UIComponent find(ScriptEvent e)
+	{
+		Widget source = e.getSource();
+
+		if (source == null)
+			return null;
+
+		int index = source.getIndex();
+
+		if (index < 0 || index >= this.components.length)
+			return null;
+
+		UIComponent component = this.components[index];
+
+		// Ignore events for widgets the component has since been detached from
+		return (component != null && component.getWidget() == source) ? component : null;
+	}
+
+	private void onOp(ScriptEvent e)
+	{
+		long allocated = this.allocationMeter.start();
+		UIComponent component = this.find(e);
+
+		if (component != null)
+			component.onActionSelected(e);
+
+		this.allocationMeter.stop(Handler.MENU_ACTION, allocated);
+	}
+
+	private void onMouseOver(ScriptEvent e)
+	{
+		long allocated = this.allocationMeter.start();
+		UIComponent component = this.find(e);
+
+		if (component != null)
+			component.onMouseHover(e);
+
+		this.allocationMeter.stop(Handler.MOUSE_HOVER, allocated);
+	}
+
+	private void onMouseLeave(ScriptEvent e)
+	{
+		long allocated = this.allocationMeter.start();
+		UIComponent component = this.find(e);
+
+		if (component != null)
+			component.onMouseLeave(e);
+
+		this.allocationMeter.stop(Handler.MOUSE_LEAVE, allocated);
+	}
+
+	private void onMouseRepeat(ScriptEvent e)
+	{
+		long allocated = this.allocationMeter.start();
+		UIComponent component = this.find(e);
+
+		if (component != null)
+			component.onMouseRepeat(e);
+
+		this.allocationMeter.stop(Handler.MOUSE_REPEAT, allocated);
+	}
+}
@@ -0,0 +1,14 @@
+package net.antipixel.nexus.ui;
+
+/**
+ * A listener interface for receiving changes to the icon beneath the mouse
+ * @author Antipixel
+ */
+public interface IconHoverListener
+{
+	/**
+	 * Invoked upon the mouse moving onto a different icon, or off of all icons
+	 * @param iconIndex the index of the icon beneath the mouse, or -1 if there's none
+	 */
+	void onIconHover(int iconIndex);
+}
@@ -0,0 +1,95 @@
+package net.antipixel.nexus.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of which pages are currently shown, so that switching between
+ * pages only changes the visibility of the pages being hidden and those being
+ * shown, rather than every page. Pages must be hidden through {@link #hide(UIPage)}
+ * upon being created, after which their visibility is left to the reconciler
+ * @author Antipixel
+ */
+public class PageReconciler
+{
+	private final List<UIPage> shownPages;
+
+	/**
+	 * Constructs a new page reconciler, with no pages shown
+	 */
+	public PageReconciler()
+	{
+		this.shownPages = new ArrayList<>();
+	}
+
+	/**
+	 * Shows the given pages, hiding any other pages which are currently shown
+	 * @param pages the pages to show
+	 */
+	public void show(UIPage... pages)
+	{
+		// Hide the pages which are shown but no longer wanted
+		for (int i = this.shownPages.size() - 1; i >= 0; i--)
+		{
+			UIPage page = this.shownPages.get(i);
+
+			if (!contains(pages, page))
+			{
+				setShown(page, false);
+				this.shownPages.remove(i);
+			}
+		}
+
+		// Show the pages which aren't already shown
+		for (UIPage page : pages)
+		{
+			if (!this.shownPages.contains(page))
+			{
+				setShown(page, true);
+				this.shownPages.add(page);
+			}
+		}
+	}
+
+	/**
+	 * Hides a page, such as a newly created page, whose visibility
+	 * is then left to the reconciler
+	 * @param page the page to hide
+	 */
+	public void hide(UIPage page)
+	{
+		setShown(page, false);
+		this.shownPages.remove(page);
+	}
+
+	/**
+	 * Hides each of the pages currently shown
+	 */
+	public void hideAll()
+	{
+		this.show();
+	}
+
+	/**
+	 * Shows or hides a page, only accepting input from
+	 * the mouse for the components of a visible page
+	 * @param page the page
+	 * @param shown true to show the page, false to hide it
+	 */
+	private static void setShown(UIPage page, boolean shown)
+	{
+		page.setVisibility(shown);
+		page.setInputEnabled(shown);
+	}
+
+	private static boolean contains(UIPage[] pages, UIPage page)
+	{
+		for (UIPage p : pages)
+		{
+			if (p == page)
+				return true;
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,202 @@
+package net.antipixel.nexus.ui;
+
+/**
+ * Animates the position and opacity of components over time. Each animation
+ * occupies one of a fixed number of slots, held in primitive arrays allocated
+ * up front, so advancing the animations each frame allocates nothing. Once the
+ * last animation has finished, advancing the engine returns immediately
+ * @author Antipixel
+ */
+public class TweenEngine
+{
+	/* The properties of a component which can be animated */
+	public static final int PROPERTY_Y = 0;
+	public static final int PROPERTY_OPACITY = 1;
+
+	/* The easing curves, mapping the elapsed fraction of the animation to its progress */
+	public static final int EASE_LINEAR = 0;
+	public static final int EASE_OUT_QUAD = 1;
+	public static final int EASE_IN_OUT_CUBIC = 2;
+
+	private static final long NANOS_PER_MILLI = 1_000_000L;
+
+	/* Animation slots, those below the active count being in use */
+	private final UIComponent[] components;
+	private final int[] properties;
+	private final int[] curves;
+	private final float[] from;
+	private final float[] to;
+	private final long[] startTimes;
+	private final long[] durations;
+	private int activeCount;
+
+	/**
+	 * Constructs a new tween engine
+	 * @param capacity the maximum number of animations which may run at once
+	 */
+	public TweenEngine(int capacity)
+	{
+		this.components = new UIComponent[capacity];
+		this.properties = new int[capacity];
+		this.curves = new int[capacity];
+		this.from = new float[capacity];
+		this.to = new float[capacity];
+		this.startTimes = new long[capacity];
+		this.durations = new long[capacity];
+	}
+
+	/**
+	 * Animates a property of a component from its current value to the target value.
+	 * Should the property already be animating, the animation continues from where it
+	 * is towards the new target. Should every slot be in use, the target is set at once
+	 * @param component the component to animate
+	 * @param property the property, either {@link #PROPERTY_Y} or {@link #PROPERTY_OPACITY}
+	 * @param target the value of the property at the end of the animation
+	 * @param durationMillis the duration of the animation, in milliseconds
+	 * @param curve the easing curve of the animation
+	 * @param now the current time, as given by {@link System#nanoTime()}
+	 */
+	public void animate(UIComponent component, int property, float target, int durationMillis, int curve, long now)
+	{
+		int slot = this.find(component, property);
+
+		if (slot == -1)
+		{
+			if (this.activeCount == this.components.length || durationMillis <= 0)
+			{
+				setValue(component, property, target);
+				return;
+			}
+
+			slot = this.activeCount++;
+			this.components[slot] = component;
+			this.properties[slot] = property;
+		}
+
+		this.curves[slot] = curve;
+		this.from[slot] = getValue(component, property);
+		this.to[slot] = target;
+		this.startTimes[slot] = now;
+		this.durations[slot] = Math.max(1, durationMillis) * NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Advances each of the animations to the given time,
+	 * removing those which have reached their target
+	 * @param now the current time, as given by {@link System#nanoTime()}
+	 */
+	public void tick(long now)
+	{
+		int slot = 0;
+
+		while (slot < this.activeCount)
+		{
+			float fraction = (float) (now - this.startTimes[slot]) / this.durations[slot];
+
+			if (fraction >= 1.0f)
+			{
+				setValue(this.components[slot], this.properties[slot], this.to[slot]);
+				this.remove(slot);
+				continue;
+			}
+
+			float progress = ease(this.curves[slot], Math.max(0.0f, fraction));
+			float value = this.from[slot] + (this.to[slot] - this.from[slot]) * progress;
+
+			setValue(this.components[slot], this.properties[slot], value);
+			slot++;
+		}
+	}
+
+	/**
+	 * Stops all of the animations, leaving the
+	 * components with their current values
+	 */
+	public void clear()
+	{
+		for (int i = 0; i < this.activeCount; i++)
+			this.components[i] = null;
+
+		this.activeCount = 0;
+	}
+
+	/**
+	 * Checks whether any animations are running
+	 * @return true if there are no animations running
+	 */
+	public boolean isIdle()
+	{
+		return this.activeCount == 0;
+	}
+
+	/**
+	 * Finds the slot of the animation of a component's property
+	 * @param component the component
+	 * @param property the property
+	 * @return the slot, or -1 if the property isn't animating
+	 */
+	private int find(UIComponent component, int property)
+	{
+		for (int i = 0; i < this.activeCount; i++)
+		{
+			if (this.components[i] == component && this.properties[i] == property)
+				return i;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Frees a slot, by moving the last active animation into it
+	 * @param slot the slot
+	 */
+	private void remove(int slot)
+	{
+		int last = --this.activeCount;
+
+		this.components[slot] = this.components[last];
+		this.properties[slot] = this.properties[last];
+		this.curves[slot] = this.curves[last];
+		this.from[slot] = this.from[last];
+		this.to[slot] = this.to[last];
+		this.startTimes[slot] = this.startTimes[last];
+		this.durations[slot] = this.durations[last];
+		this.components[last] = null;
+	}
+
+	/**
+	 * Applies an easing curve
+	 * @param curve the easing curve
+	 * @param t the elapsed fraction of the animation, between 0.0 and 1.0
+	 * @return the progress of the animation, between 0.0 and 1.0
+	 */
+	static float ease(int curve, float t)
+	{
+		switch (curve)
+		{
+			case EASE_OUT_QUAD:
+				return t * (2.0f - t);
+			case EASE_IN_OUT_CUBIC:
+				if (t < 0.5f)
+					return 4.0f * t * t * t;
+
+				float f = 2.0f * t - 2.0f;
+				return 0.5f * f * f * f + 1.0f;
+			default:
+				return t;
+		}
+	}
+
+	private static float getValue(UIComponent component, int property)
+	{
+		return (property == PROPERTY_Y) ? component.getY() : component.getOpacity();
+	}
+
+	private static void setValue(UIComponent component, int property, float value)
+	{
+		if (property == PROPERTY_Y)
+			component.setY(Math.round(value));
+		else
+			component.setOpacity(value);
+	}
+}
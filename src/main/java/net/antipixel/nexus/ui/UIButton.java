@@ -1,7 +1,6 @@
 package net.antipixel.nexus.ui;
 
 import net.runelite.api.ScriptEvent;
-import net.runelite.api.widgets.Widget;
 
 /**
  * This class wraps a game widget and gives it the functionality
@@ -13,19 +12,36 @@ public class UIButton extends UIComponent
 	private int spriteStandard;
 	private int spriteHover;
 
+	/* The sprite currently shown on the widget */
+	private int spriteShown;
+
 	/**
 	 * Constructs a new button component
-	 * @param widget the underlying widget
 	 */
-	public UIButton(Widget widget)
+	public UIButton()
 	{
-		super(widget);
-
 		// Blank the sprites
 		this.spriteStandard = -1;
 		this.spriteHover = -1;
 	}
 
+	@Override
+	protected void applyState()
+	{
+		super.applyState();
+
+		// Restore the standard sprite
+		this.spriteShown = this.spriteStandard;
+		this.getWidget().setSpriteId(this.spriteShown);
+	}
+
+	@Override
+	protected boolean handlesHover()
+	{
+		// Only listen for the mouse if there's a distinct sprite to show
+		return super.handlesHover() || this.spriteHover != this.spriteStandard;
+	}
+
 	@Override
 	protected void onMouseHover(ScriptEvent e)
 	{
@@ -33,7 +49,7 @@ public class UIButton extends UIComponent
 		super.onMouseHover(e);
 
 		// Update the sprite
-		this.getWidget().setSpriteId(this.spriteHover);
+		this.showSprite(this.spriteHover);
 	}
 
 	@Override
@@ -43,7 +59,7 @@ public class UIButton extends UIComponent
 		super.onMouseLeave(e);
 
 		// Update the sprite
-		this.getWidget().setSpriteId(this.spriteStandard);
+		this.showSprite(this.spriteStandard);
 	}
 
 	/**
@@ -53,11 +69,36 @@ public class UIButton extends UIComponent
 	 */
 	public void setSprites(int standard, int hover)
 	{
+		if (this.spriteStandard == standard && this.spriteHover == hover)
+			return;
+
+		boolean hoverChanged = (this.spriteStandard != this.spriteHover) != (standard != hover);
+
 		this.spriteStandard = standard;
 		this.spriteHover = hover;
 
 		// Update the widgets sprite
-		this.getWidget().setSpriteId(this.spriteStandard);
+		if (this.isAttached())
+		{
+			this.showSprite(this.spriteStandard);
+
+			// Listen for the mouse only if there's now a distinct hover sprite
+			if (hoverChanged)
+				this.applyListeners();
+		}
+	}
+
+	/**
+	 * Shows a sprite on the widget, should it not already be shown
+	 * @param spriteID the sprite ID
+	 */
+	private void showSprite(int spriteID)
+	{
+		if (this.spriteShown == spriteID)
+			return;
+
+		this.spriteShown = spriteID;
+		this.getWidget().setSpriteId(spriteID);
 	}
 
 	/**
@@ -31,24 +31,23 @@ public class UICheckBox extends UIComponent
 	private boolean enabled;
 	private boolean hovering;
 
+	/* The sprite currently shown on the checkbox widget */
+	private int spriteShown;
+
 	@Setter
 	private ComponentEventListener toggleListener;
 
 	/**
 	 * Constructs a new checkbox component
-	 * @param boxIcon the checkbox graphic widget
-	 * @param labelWidget the checkbox label widget
 	 */
-	public UICheckBox(Widget boxIcon, Widget labelWidget)
+	public UICheckBox()
 	{
-		super(boxIcon);
-
 		this.enabled = false;
 		this.hovering = false;
 
-		// Wrap the widget in a label component, set the
+		// Create the label component, set the
 		// dimension, colour and attach the listeners
-		this.label = new UILabel(labelWidget);
+		this.label = new UILabel();
 		this.label.setSize(LABEL_WIDTH, LABEL_HEIGHT);
 		this.label.setColour(LABEL_COL_DEFAULT);
 		this.label.setOnHoverListener(this::onLabelHover);
@@ -60,6 +59,43 @@ public class UICheckBox extends UIComponent
 		this.setSize(CHECKBOX_SIZE, CHECKBOX_SIZE);
 	}
 
+	@Override
+	public void attach(Widget parent, EventHub eventHub)
+	{
+		// Attach the checkbox graphic, followed by the label
+		super.attach(parent, eventHub);
+		this.label.attach(parent, eventHub);
+	}
+
+	@Override
+	public void detach()
+	{
+		super.detach();
+		this.label.detach();
+	}
+
+	@Override
+	public void setInputEnabled(boolean enabled)
+	{
+		// The label receives the input on behalf of the checkbox
+		super.setInputEnabled(enabled);
+		this.label.setInputEnabled(enabled);
+	}
+
+	@Override
+	protected void applyState()
+	{
+		super.applyState();
+
+		// The mouse won't be over a newly attached widget
+		this.hovering = false;
+		this.label.setColour(LABEL_COL_DEFAULT);
+
+		// The new widget has no sprite, so make sure it's set
+		this.spriteShown = -1;
+		this.updateCheckboxSprite();
+	}
+
 	/**
 	 * Called upon the mouse hovering over the label component
 	 * @param src the label component
@@ -143,7 +179,13 @@ public class UICheckBox extends UIComponent
 		int hovSprite = enabled ? SPRITEID_CHECKBOX_CHECKED_HOV : SPRITEID_CHECKBOX_UNCHECKED_HOV;
 
 		// Apply it to the checkbox widget, depending on whether the mouse is hovering
-		this.getWidget().setSpriteId(this.hovering ? hovSprite : stdSprite);
+		int sprite = this.hovering ? hovSprite : stdSprite;
+
+		if (this.isAttached() && this.spriteShown != sprite)
+		{
+			this.spriteShown = sprite;
+			this.getWidget().setSpriteId(sprite);
+		}
 	}
 
 	/**
@@ -2,50 +2,223 @@ package net.antipixel.nexus.ui;
 
 import java.util.ArrayList;
 import java.util.List;
-import lombok.Data;
 import lombok.Getter;
-import lombok.Setter;
 import net.runelite.api.ScriptEvent;
-import net.runelite.api.widgets.JavaScriptCallback;
 import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetType;
 
 /**
  * UI Component classes allow for complex user interface functionality by
- * wrapping the gaming widget and carefully controlling its behaviour
+ * wrapping the gaming widget and carefully controlling its behaviour.
+ * The state of the component is retained independently of the widget, so
+ * that the component may outlive it and be attached to a new widget later.
+ * The events of the widget are received through the {@link EventHub} of the
+ * layer, and only for those events which the component actually handles.
+ * The state doubles as a shadow of the widget, so that setting a property to
+ * its current value doesn't write to the widget, while changes to the layout
+ * are revalidated by the hub once per frame rather than upon each change
  * @author Antipixel
  */
 public abstract class UIComponent
 {
 	private static final int MAX_OPACITY = 255;
-	private static final String BTN_NAME_FORMAT = "<col=ff9040>%s</col>";
+	private static final String NAME_COLOUR_TAG = "<col=ff9040>";
+	private static final String NAME_END_TAG = "</col>";
 
 	@Getter
 	private Widget widget;
 
+	/* Component state */
+	private int x;
+	private int y;
+	private int width;
+	private int height;
+	private int opacity;
+	private boolean hidden;
+	private boolean inputEnabled;
+	private String name;
+
+	/* Whether the layout has changed since the widget was last revalidated */
+	private boolean dirty;
+
 	/* Actions and events */
+	private List<String> actionNames;
 	private List<MenuAction> actions;
 
-	@Setter
 	private ComponentEventListener hoverListener;
-
-	@Setter
 	private ComponentEventListener leaveListener;
 
+	/* The hub through which the events of the widget are received */
+	private EventHub eventHub;
+
+	/**
+	 * Constructs a new UIComponent, which is not
+	 * attached to a widget until {@link #attach(Widget, EventHub)}
+	 */
+	public UIComponent()
+	{
+		this.actionNames = new ArrayList<>();
+		this.actions = new ArrayList<>();
+		this.inputEnabled = true;
+	}
+
+	/**
+	 * Gets the type of widget required by this component
+	 * @return the widget type, as specified in {@link WidgetType}
+	 */
+	protected int getWidgetType()
+	{
+		return WidgetType.GRAPHIC;
+	}
+
+	/**
+	 * Creates a new widget on the given layer and binds the component
+	 * to it, applying the current state of the component to the widget
+	 * @param parent the layer on which to create the widget
+	 * @param eventHub the hub dispatching the events of the widgets on the layer
+	 */
+	public void attach(Widget parent, EventHub eventHub)
+	{
+		this.eventHub = eventHub;
+		this.setWidget(parent.createChild(-1, this.getWidgetType()));
+	}
+
+	/**
+	 * Releases the widget currently bound to the component. The
+	 * component state is retained until the next time it's attached
+	 */
+	public void detach()
+	{
+		this.widget = null;
+		this.eventHub = null;
+		this.dirty = false;
+	}
+
+	/**
+	 * Checks whether the component is currently bound to a widget
+	 * @return true if the component has a widget, otherwise false
+	 */
+	public boolean isAttached()
+	{
+		return this.widget != null;
+	}
+
 	/**
-	 * Constructs a new UIComponent
+	 * Binds the component to the given widget
 	 * @param widget the underlying game widget
 	 */
-	public UIComponent(Widget widget)
+	private void setWidget(Widget widget)
 	{
 		this.widget = widget;
+		this.eventHub.register(this, widget);
 
-		// Assign the event listeners to the widget
-		this.widget.setOnOpListener((JavaScriptCallback) this::onActionSelected);
-		this.widget.setOnMouseOverListener((JavaScriptCallback) this::onMouseHover);
-		this.widget.setOnMouseLeaveListener((JavaScriptCallback) this::onMouseLeave);
-		this.widget.setHasListener(true);
+		this.applyState();
+		this.applyListeners();
+	}
 
-		this.actions = new ArrayList<>();
+	/**
+	 * Assigns the listeners of the event hub to the widget, for only those
+	 * events which the component handles. Widgets with no listeners aren't
+	 * flagged as having any, sparing the client from running their scripts
+	 */
+	protected void applyListeners()
+	{
+		if (this.widget == null)
+			return;
+
+		boolean handlesActions = this.handlesActions();
+		boolean handlesHover = this.handlesHover();
+		boolean handlesMouseRepeat = this.handlesMouseRepeat();
+
+		if (handlesActions)
+			this.widget.setOnOpListener(this.eventHub.opListener);
+
+		if (handlesHover)
+		{
+			this.widget.setOnMouseOverListener(this.eventHub.hoverListener);
+			this.widget.setOnMouseLeaveListener(this.eventHub.leaveListener);
+		}
+
+		if (handlesMouseRepeat)
+			this.widget.setOnMouseRepeatListener(this.eventHub.repeatListener);
+
+		this.widget.setHasListener(this.inputEnabled && (handlesActions || handlesHover || handlesMouseRepeat));
+	}
+
+	/**
+	 * Marks the layout of the widget as changed, queueing
+	 * it to be revalidated by the hub at the end of the frame
+	 */
+	private void markDirty()
+	{
+		if (this.widget == null || this.dirty)
+			return;
+
+		this.dirty = true;
+		this.eventHub.markDirty(this);
+	}
+
+	/**
+	 * Revalidates the widget, should its layout have changed since it was last
+	 * revalidated. Called by the hub for each component marked as dirty
+	 */
+	void revalidate()
+	{
+		if (!this.dirty)
+			return;
+
+		this.dirty = false;
+
+		if (this.widget != null)
+			this.widget.revalidate();
+	}
+
+	/**
+	 * Checks whether the component handles the selection of menu options
+	 * @return true if the component has any actions
+	 */
+	protected boolean handlesActions()
+	{
+		return !this.actions.isEmpty();
+	}
+
+	/**
+	 * Checks whether the component handles the mouse entering and leaving it.
+	 * Components reacting to the mouse themselves should override this method
+	 * @return true if the component has a hover or leave listener
+	 */
+	protected boolean handlesHover()
+	{
+		return this.hoverListener != null || this.leaveListener != null;
+	}
+
+	/**
+	 * Checks whether the component handles the mouse moving within it
+	 * @return true if the component should receive {@link #onMouseRepeat(ScriptEvent)}
+	 */
+	protected boolean handlesMouseRepeat()
+	{
+		return false;
+	}
+
+	/**
+	 * Applies the state of the component to the underlying widget.
+	 * Components holding additional state should override this method
+	 */
+	protected void applyState()
+	{
+		this.widget.setOriginalX(this.x);
+		this.widget.setOriginalY(this.y);
+		this.widget.setOriginalWidth(this.width);
+		this.widget.setOriginalHeight(this.height);
+		this.widget.setOpacity(this.opacity);
+		this.widget.setHidden(this.hidden);
+
+		if (this.name != null)
+			this.widget.setName(this.name);
+
+		for (int i = 0; i < this.actionNames.size(); i++)
+			this.widget.setAction(i, this.actionNames.get(i));
 	}
 
 	/**
@@ -56,8 +229,57 @@ public abstract class UIComponent
 	 */
 	public void addAction(String action, MenuAction callback)
 	{
-		this.widget.setAction(actions.size(), action);
+		if (this.widget != null)
+			this.widget.setAction(actions.size(), action);
+
+		this.actionNames.add(action);
 		this.actions.add(callback);
+
+		// The widget needs the op listener upon gaining its first action
+		if (this.actions.size() == 1)
+			this.applyListeners();
+	}
+
+	/**
+	 * Renames an action option of the component's menu, keeping its callback
+	 * @param index the index of the action, in the order in which they were added
+	 * @param action the new action name
+	 */
+	public void renameAction(int index, String action)
+	{
+		if (index >= this.actionNames.size() || action.equals(this.actionNames.get(index)))
+			return;
+
+		this.actionNames.set(index, action);
+
+		if (this.widget != null)
+			this.widget.setAction(index, action);
+	}
+
+	/**
+	 * Removes all action options from the component's menu. Should the
+	 * component no longer handle actions, the op listener is also removed
+	 * from the widget, leaving neither to be restored upon the next attach
+	 */
+	public void clearActions()
+	{
+		if (this.actions.isEmpty())
+			return;
+
+		if (this.widget != null)
+		{
+			for (int i = 0; i < this.actionNames.size(); i++)
+				this.widget.setAction(i, null);
+		}
+
+		this.actionNames.clear();
+		this.actions.clear();
+
+		if (this.widget != null && !this.handlesActions())
+		{
+			this.widget.setOnOpListener((Object[]) null);
+			this.applyListeners();
+		}
 	}
 
 	/**
@@ -70,8 +292,15 @@ public abstract class UIComponent
 		if (this.actions.isEmpty())
 			return;
 
+		// Ignore options for which there's no action, which may
+		// happen should the actions be cleared while the menu is open
+		int actionIndex = e.getOp() - 1;
+
+		if (actionIndex < 0 || actionIndex >= this.actions.size())
+			return;
+
 		// Get the action action event object for this menu option
-		MenuAction actionEvent = this.actions.get(e.getOp() - 1);
+		MenuAction actionEvent = this.actions.get(actionIndex);
 
 		// Call the action listener for this option
 		actionEvent.onMenuAction();
@@ -99,6 +328,15 @@ public abstract class UIComponent
 			this.leaveListener.onComponentEvent(this);
 	}
 
+	/**
+	 * Triggered repeatedly while the mouse is over the component, for
+	 * components which declare so through {@link #handlesMouseRepeat()}
+	 * @param e the script event
+	 */
+	protected void onMouseRepeat(ScriptEvent e)
+	{
+	}
+
 	/**
 	 * Sets a listener which will be called upon the mouse
 	 * hovering over the widget
@@ -107,6 +345,7 @@ public abstract class UIComponent
 	public void setOnHoverListener(ComponentEventListener listener)
 	{
 		this.hoverListener = listener;
+		this.applyListeners();
 	}
 
 	/**
@@ -117,15 +356,59 @@ public abstract class UIComponent
 	public void setOnLeaveListener(ComponentEventListener listener)
 	{
 		this.leaveListener = listener;
+		this.applyListeners();
+	}
+
+	/**
+	 * Sets whether the component receives input from the mouse. While
+	 * disabled, the widget is flagged as having no listeners at all
+	 * @param enabled true to receive input, false to ignore it
+	 */
+	public void setInputEnabled(boolean enabled)
+	{
+		if (this.inputEnabled == enabled)
+			return;
+
+		this.inputEnabled = enabled;
+		this.applyListeners();
 	}
 
 	/**
 	 * Sets the name of the component widget
-	 * @param name the component name
+	 * @param name the component name, or null to remove the name
 	 */
 	public void setName(String name)
 	{
-		this.widget.setName(String.format(BTN_NAME_FORMAT, name));
+		this.setFormattedName(formatName(name));
+	}
+
+	/**
+	 * Sets the name of the component widget, which has already been
+	 * formatted for the menu through {@link #formatName(String)}
+	 * @param formattedName the formatted name, or null to remove the name
+	 */
+	public void setFormattedName(String formattedName)
+	{
+		if (formattedName == null)
+			formattedName = "";
+
+		if (formattedName.equals(this.name))
+			return;
+
+		this.name = formattedName;
+
+		if (this.widget != null)
+			this.widget.setName(this.name);
+	}
+
+	/**
+	 * Formats a name for display in the menu, in the colour of the names of the menu
+	 * @param name the name, or null for no name
+	 * @return the formatted name, or an empty string if there's no name
+	 */
+	public static String formatName(String name)
+	{
+		return (name != null) ? NAME_COLOUR_TAG + name + NAME_END_TAG : "";
 	}
 
 	/**
@@ -135,8 +418,18 @@ public abstract class UIComponent
 	 */
 	public void setSize(int width, int height)
 	{
-		this.widget.setOriginalWidth(width);
-		this.widget.setOriginalHeight(height);
+		if (this.width == width && this.height == height)
+			return;
+
+		this.width = width;
+		this.height = height;
+
+		if (this.widget != null)
+		{
+			this.widget.setOriginalWidth(width);
+			this.widget.setOriginalHeight(height);
+			this.markDirty();
+		}
 	}
 
 	/**
@@ -158,7 +451,16 @@ public abstract class UIComponent
 	 */
 	public void setX(int x)
 	{
-		this.widget.setOriginalX(x);
+		if (this.x == x)
+			return;
+
+		this.x = x;
+
+		if (this.widget != null)
+		{
+			this.widget.setOriginalX(x);
+			this.markDirty();
+		}
 	}
 
 	/**
@@ -168,7 +470,16 @@ public abstract class UIComponent
 	 */
 	public void setY(int y)
 	{
-		this.widget.setOriginalY(y);
+		if (this.y == y)
+			return;
+
+		this.y = y;
+
+		if (this.widget != null)
+		{
+			this.widget.setOriginalY(y);
+			this.markDirty();
+		}
 	}
 
 	/**
@@ -178,7 +489,7 @@ public abstract class UIComponent
 	 */
 	public int getX()
 	{
-		return this.widget.getOriginalX();
+		return this.x;
 	}
 
 	/**
@@ -188,7 +499,7 @@ public abstract class UIComponent
 	 */
 	public int getY()
 	{
-		return this.widget.getOriginalY();
+		return this.y;
 	}
 
 
@@ -198,7 +509,13 @@ public abstract class UIComponent
 	 */
 	public void setVisibility(boolean visible)
 	{
-		this.widget.setHidden(!visible);
+		if (this.hidden != visible)
+			return;
+
+		this.hidden = !visible;
+
+		if (this.widget != null)
+			this.widget.setHidden(this.hidden);
 	}
 
 	/**
@@ -216,7 +533,15 @@ public abstract class UIComponent
 		float percentage = 1.0f - opacity;
 
 		// Convert the percentage value to a 0-255 integer
-		this.widget.setOpacity((int)(percentage * MAX_OPACITY));
+		int opacityValue = (int)(percentage * MAX_OPACITY);
+
+		if (this.opacity == opacityValue)
+			return;
+
+		this.opacity = opacityValue;
+
+		if (this.widget != null)
+			this.widget.setOpacity(this.opacity);
 	}
 
 	/**
@@ -226,7 +551,7 @@ public abstract class UIComponent
 	public float getOpacity()
 	{
 		// Convert the opacity to a percentage
-		float opacity = (float)this.widget.getOpacity() / MAX_OPACITY;
+		float opacity = (float)this.opacity / MAX_OPACITY;
 
 		// Invert the percentage
 		return 1.0f - opacity;
@@ -1,7 +1,6 @@
 package net.antipixel.nexus.ui;
 
 import net.runelite.api.ScriptEvent;
-import net.runelite.api.widgets.Widget;
 
 /**
  * Functionally identical to the UI Button, except the opacity
@@ -12,10 +11,42 @@ public class UIFadeButton extends UIButton
 {
 	private static final float FADE_OPACITY = 0.75f;
 	private static final float DEFAULT_OPACITY = 1.0f;
+	private static final int FADE_MILLIS = 100;
 
-	public UIFadeButton(Widget widget)
+	/* Animates the fading, or null to fade instantly */
+	private TweenEngine tweenEngine;
+
+	/**
+	 * Constructs a new fade button component
+	 */
+	public UIFadeButton()
+	{
+		super();
+	}
+
+	/**
+	 * Sets the engine with which to animate the fading of the button
+	 * @param tweenEngine the tween engine, or null to fade instantly
+	 */
+	public void setTweenEngine(TweenEngine tweenEngine)
+	{
+		this.tweenEngine = tweenEngine;
+	}
+
+	@Override
+	protected void applyState()
+	{
+		// The mouse won't be over a newly attached
+		// widget, so make sure it's not left faded
+		this.setOpacity(DEFAULT_OPACITY);
+
+		super.applyState();
+	}
+
+	@Override
+	protected boolean handlesHover()
 	{
-		super(widget);
+		return true;
 	}
 
 	@Override
@@ -24,7 +55,7 @@ public class UIFadeButton extends UIButton
 		super.onMouseHover(e);
 
 		// Fade the widget
-		this.setOpacity(FADE_OPACITY);
+		this.fadeTo(FADE_OPACITY);
 	}
 
 	@Override
@@ -33,6 +64,19 @@ public class UIFadeButton extends UIButton
 		super.onMouseLeave(e);
 
 		// Set the widget back to full opacity
-		this.setOpacity(DEFAULT_OPACITY);
+		this.fadeTo(DEFAULT_OPACITY);
+	}
+
+	/**
+	 * Fades the button to the given opacity, animated if there's a tween engine
+	 * @param opacity the target opacity
+	 */
+	private void fadeTo(float opacity)
+	{
+		if (this.tweenEngine != null)
+			this.tweenEngine.animate(this, TweenEngine.PROPERTY_OPACITY, opacity,
+				FADE_MILLIS, TweenEngine.EASE_OUT_QUAD, System.nanoTime());
+		else
+			this.setOpacity(opacity);
 	}
 }
@@ -1,7 +1,5 @@
 package net.antipixel.nexus.ui;
 
-import net.runelite.api.widgets.Widget;
-
 /**
  * This class wraps a game widget and gives it the functionality
  * of a graphic display component, effectively just a game sprite.
@@ -9,13 +7,24 @@ import net.runelite.api.widgets.Widget;
  */
 public class UIGraphic extends UIComponent
 {
+	private int spriteID;
+
 	/**
 	 * Constructs a new graphic component
-	 * @param widget the underlying widget
 	 */
-	public UIGraphic(Widget widget)
+	public UIGraphic()
+	{
+		// Blank the sprite
+		this.spriteID = -1;
+	}
+
+	@Override
+	protected void applyState()
 	{
-		super(widget);
+		super.applyState();
+
+		// Restore the sprite
+		this.getWidget().setSpriteId(this.spriteID);
 	}
 
 	/**
@@ -24,6 +33,12 @@ public class UIGraphic extends UIComponent
 	 */
 	public void setSprite(int spriteID)
 	{
-		this.getWidget().setSpriteId(spriteID);
+		if (this.spriteID == spriteID)
+			return;
+
+		this.spriteID = spriteID;
+
+		if (this.isAttached())
+			this.getWidget().setSpriteId(spriteID);
 	}
 }
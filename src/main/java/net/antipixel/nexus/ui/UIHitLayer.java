@@ -0,0 +1,139 @@
+package net.antipixel.nexus.ui;
+
+import net.antipixel.nexus.model.IconGrid;
+import net.runelite.api.Client;
+import net.runelite.api.Point;
+import net.runelite.api.ScriptEvent;
+
+/**
+ * An invisible component which receives the mouse input for a set of icons
+ * drawn beneath it, such as those baked into a composited map sprite. The
+ * icon beneath the mouse is looked up in a spatial index as the mouse moves,
+ * and the listener is informed whenever it changes, so that the name and
+ * actions of the component can be set to those of the icon
+ * @author Antipixel
+ */
+public class UIHitLayer extends UIComponent
+{
+	private final Client client;
+
+	private IconGrid iconGrid;
+	private IconHoverListener iconHoverListener;
+	private int hoveredIcon;
+
+	/**
+	 * Constructs a new hit layer
+	 * @param client the client, from which the mouse position is read
+	 */
+	public UIHitLayer(Client client)
+	{
+		this.client = client;
+		this.hoveredIcon = -1;
+	}
+
+	@Override
+	protected void applyState()
+	{
+		super.applyState();
+
+		// The mouse won't be over a newly attached widget
+		this.hoveredIcon = -1;
+	}
+
+	@Override
+	protected boolean handlesActions()
+	{
+		// The actions are those of the hovered icon, so may be added at any time
+		return true;
+	}
+
+	@Override
+	protected boolean handlesHover()
+	{
+		return true;
+	}
+
+	@Override
+	protected boolean handlesMouseRepeat()
+	{
+		return true;
+	}
+
+	/**
+	 * Sets the icons which receive input through this component, replacing any previous icons
+	 * @param iconGrid the spatial index of the icons, relative to the component
+	 */
+	public void setIconGrid(IconGrid iconGrid)
+	{
+		this.iconGrid = iconGrid;
+		this.setHoveredIcon(-1);
+	}
+
+	/**
+	 * Sets a listener which will be called upon the icon beneath the mouse changing
+	 * @param listener the listener
+	 */
+	public void setIconHoverListener(IconHoverListener listener)
+	{
+		this.iconHoverListener = listener;
+	}
+
+	/**
+	 * Gets the icon currently beneath the mouse
+	 * @return the index of the icon, or -1 if there's none
+	 */
+	public int getHoveredIcon()
+	{
+		return this.hoveredIcon;
+	}
+
+	@Override
+	protected void onMouseHover(ScriptEvent e)
+	{
+		super.onMouseHover(e);
+		this.updateHoveredIcon();
+	}
+
+	@Override
+	protected void onMouseRepeat(ScriptEvent e)
+	{
+		this.updateHoveredIcon();
+	}
+
+	@Override
+	protected void onMouseLeave(ScriptEvent e)
+	{
+		super.onMouseLeave(e);
+		this.setHoveredIcon(-1);
+	}
+
+	/**
+	 * Looks up the icon beneath the mouse
+	 */
+	private void updateHoveredIcon()
+	{
+		if (this.iconGrid == null || !this.isAttached())
+			return;
+
+		// Find the position of the mouse relative to the component
+		Point mouse = this.client.getMouseCanvasPosition();
+		Point location = this.getWidget().getCanvasLocation();
+
+		this.setHoveredIcon(this.iconGrid.find(mouse.getX() - location.getX(), mouse.getY() - location.getY()));
+	}
+
+	/**
+	 * Sets the icon beneath the mouse, informing the listener if it has changed
+	 * @param iconIndex the index of the icon, or -1 if there's none
+	 */
+	private void setHoveredIcon(int iconIndex)
+	{
+		if (this.hoveredIcon == iconIndex)
+			return;
+
+		this.hoveredIcon = iconIndex;
+
+		if (this.iconHoverListener != null)
+			this.iconHoverListener.onIconHover(iconIndex);
+	}
+}
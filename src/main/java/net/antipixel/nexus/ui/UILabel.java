@@ -1,9 +1,10 @@
 package net.antipixel.nexus.ui;
 
 import java.awt.Color;
+import java.util.Objects;
 import net.runelite.api.FontID;
-import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetTextAlignment;
+import net.runelite.api.widgets.WidgetType;
 
 /**
  * This class wraps a game widget and gives it the functionality of
@@ -12,22 +13,40 @@ import net.runelite.api.widgets.WidgetTextAlignment;
  */
 public class UILabel extends UIComponent
 {
+	private String text;
+	private int fontID;
+	private int colour;
+
 	/**
 	 * Constructs a new label component
-	 * @param labelWidget the underlying widget
 	 */
-	public UILabel(Widget labelWidget)
+	public UILabel()
 	{
-		super(labelWidget);
-
 		// Set default font and text colour
 		this.setFont(FontID.PLAIN_11);
 		this.setColour(Color.WHITE.getRGB());
+	}
+
+	@Override
+	protected int getWidgetType()
+	{
+		return WidgetType.TEXT;
+	}
+
+	@Override
+	protected void applyState()
+	{
+		super.applyState();
+
+		// Restore the text, font and colour
+		this.getWidget().setText(this.text);
+		this.getWidget().setFontId(this.fontID);
+		this.getWidget().setTextColor(this.colour);
 
 		// Set the alignment to centre and enable text shadowing
-		labelWidget.setXTextAlignment(WidgetTextAlignment.CENTER);
-		labelWidget.setYTextAlignment(WidgetTextAlignment.CENTER);
-		labelWidget.setTextShadowed(true);
+		this.getWidget().setXTextAlignment(WidgetTextAlignment.CENTER);
+		this.getWidget().setYTextAlignment(WidgetTextAlignment.CENTER);
+		this.getWidget().setTextShadowed(true);
 	}
 
 	/**
@@ -36,7 +55,13 @@ public class UILabel extends UIComponent
 	 */
 	public void setText(String text)
 	{
-		this.getWidget().setText(text);
+		if (Objects.equals(this.text, text))
+			return;
+
+		this.text = text;
+
+		if (this.isAttached())
+			this.getWidget().setText(text);
 	}
 
 	/**
@@ -45,7 +70,13 @@ public class UILabel extends UIComponent
 	 */
 	public void setFont(int fontID)
 	{
-		this.getWidget().setFontId(fontID);
+		if (this.fontID == fontID)
+			return;
+
+		this.fontID = fontID;
+
+		if (this.isAttached())
+			this.getWidget().setFontId(fontID);
 	}
 
 	/**
@@ -54,6 +85,12 @@ public class UILabel extends UIComponent
 	 */
 	public void setColour(int colour)
 	{
-		this.getWidget().setTextColor(colour);
+		if (this.colour == colour)
+			return;
+
+		this.colour = colour;
+
+		if (this.isAttached())
+			this.getWidget().setTextColor(colour);
 	}
 }
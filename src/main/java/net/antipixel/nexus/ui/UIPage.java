@@ -2,6 +2,7 @@ package net.antipixel.nexus.ui;
 
 import java.util.ArrayList;
 import java.util.List;
+import net.runelite.api.widgets.Widget;
 
 /**
  * A group of UIComponents
@@ -10,6 +11,7 @@ import java.util.List;
 public class UIPage
 {
 	private List<UIComponent> components;
+	private boolean attached;
 
 	/**
 	 * Constructs a new UI page
@@ -29,6 +31,45 @@ public class UIPage
 		this.components.forEach(c -> c.setVisibility(visibility));
 	}
 
+	/**
+	 * Sets whether the components in the page receive input from the mouse
+	 * @param enabled true to receive input, false to ignore it
+	 */
+	public void setInputEnabled(boolean enabled)
+	{
+		this.components.forEach(c -> c.setInputEnabled(enabled));
+	}
+
+	/**
+	 * Creates a widget for each of the components in the page, in the
+	 * order in which they were added, and binds the components to them
+	 * @param parent the layer on which to create the widgets
+	 * @param eventHub the hub dispatching the events of the widgets on the layer
+	 */
+	public void attach(Widget parent, EventHub eventHub)
+	{
+		this.components.forEach(c -> c.attach(parent, eventHub));
+		this.attached = true;
+	}
+
+	/**
+	 * Releases the widgets bound to each of the components in the page
+	 */
+	public void detach()
+	{
+		this.components.forEach(UIComponent::detach);
+		this.attached = false;
+	}
+
+	/**
+	 * Checks whether the components of the page are currently bound to widgets
+	 * @return true if the page has been attached since it was last detached
+	 */
+	public boolean isAttached()
+	{
+		return this.attached;
+	}
+
 	/**
 	 * Adds a UI component to the page
 	 * @param component the component to add
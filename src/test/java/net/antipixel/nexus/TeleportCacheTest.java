@@ -0,0 +1,201 @@
+package net.antipixel.nexus;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import net.antipixel.nexus.definition.TeleportDefinition;
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetType;
+import net.runelite.client.config.ConfigManager;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the fingerprint of the teleport labels changes with the labels,
+ * that the cache is only satisfied by the fingerprint it was stored with, and
+ * that the teleports persisted for a profile are restored as they were stored
+ * @author Antipixel
+ */
+public class TeleportCacheTest
+{
+	private static final String PROFILE_KEY = "profile";
+	private static final String CFG_KEY_TELEPORTS = "availableTeleports";
+	private static final String LABEL_FORMAT = "<col=ffffff>%s</col> :  %s";
+
+	private static final TeleportDefinition[] DEFINITIONS = {
+		new TeleportDefinition("Varrock", null, 0, 0, 0, 0),
+		new TeleportDefinition("Grand Exchange", null, 0, 0, 0, 0),
+		new TeleportDefinition("Lumbridge", null, 0, 0, 0, 0),
+		new TeleportDefinition("Falador", null, 0, 0, 0, 0)
+	};
+
+	private ConfigManager configManager;
+	private ScheduledExecutorService executor;
+	private TeleportCache cache;
+
+	@Before
+	public void setUp()
+	{
+		FakeConfigManager fakeConfigManager = new FakeConfigManager();
+		fakeConfigManager.setProfileKey(PROFILE_KEY);
+
+		this.configManager = fakeConfigManager.getConfigManager();
+		this.executor = Executors.newSingleThreadScheduledExecutor();
+		this.cache = new TeleportCache(this.configManager, this.executor);
+	}
+
+	@After
+	public void tearDown()
+	{
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void testFingerprintFollowsLabels()
+	{
+		long fingerprint = fingerprint(new String[] {label("1", "Varrock"), label("2", "Lumbridge")},
+			new String[] {label("3", "Grand Exchange")});
+
+		// The same labels always give the same fingerprint
+		assertEquals(fingerprint, fingerprint(new String[] {label("1", "Varrock"), label("2", "Lumbridge")},
+			new String[] {label("3", "Grand Exchange")}));
+
+		// Any change of key, name, order, list or count should change it
+		assertNotEquals(fingerprint, fingerprint(new String[] {label("4", "Varrock"), label("2", "Lumbridge")},
+			new String[] {label("3", "Grand Exchange")}));
+		assertNotEquals(fingerprint, fingerprint(new String[] {label("1", "Varrock"), label("2", "Falador")},
+			new String[] {label("3", "Grand Exchange")}));
+		assertNotEquals(fingerprint, fingerprint(new String[] {label("2", "Lumbridge"), label("1", "Varrock")},
+			new String[] {label("3", "Grand Exchange")}));
+		assertNotEquals(fingerprint, fingerprint(new String[] {label("1", "Varrock"), label("2", "Lumbridge"),
+			label("3", "Grand Exchange")}, new String[0]));
+		assertNotEquals(fingerprint, fingerprint(new String[] {label("1", "Varrock")},
+			new String[] {label("3", "Grand Exchange")}));
+	}
+
+	@Test
+	public void testMatchesStoredFingerprint()
+	{
+		Teleport[] teleports = new Teleport[DEFINITIONS.length];
+		teleports[0] = new Teleport("Varrock", 0, "1", false);
+
+		// Nothing matches before anything has been stored
+		assertFalse(this.cache.matches(1L));
+
+		this.cache.store(1L, teleports);
+
+		assertTrue(this.cache.matches(1L));
+		assertFalse(this.cache.matches(2L));
+		assertEquals(1, this.cache.getHits());
+
+		// Once invalidated, the labels must be read again
+		this.cache.invalidate();
+		assertFalse(this.cache.matches(1L));
+	}
+
+	@Test
+	public void testPersistenceRoundTrip() throws Exception
+	{
+		Teleport[] teleports = new Teleport[DEFINITIONS.length];
+		teleports[0] = new Teleport("Varrock", 3, "1", false);
+		teleports[1] = new Teleport("Grand Exchange", 0, ",", true);
+		teleports[3] = new Teleport("Falador", 7, "F", false);
+
+		this.cache.store(0xFEDCBA9876543210L, teleports);
+		this.awaitPersistence();
+
+		// A new cache, as upon the next login, should restore the teleports as they were
+		TeleportCache restoredCache = new TeleportCache(this.configManager, this.executor);
+		Teleport[] restored = new Teleport[DEFINITIONS.length];
+		restored[2] = new Teleport("Lumbridge", 1, "2", false);
+
+		assertTrue(restoredCache.restore(0xFEDCBA9876543210L, restored, DEFINITIONS));
+		assertEquals(1, restoredCache.getHits());
+		assertTrue(restoredCache.matches(0xFEDCBA9876543210L));
+
+		for (int i = 0; i < teleports.length; i++)
+		{
+			if (teleports[i] == null)
+			{
+				assertNull(restored[i]);
+				continue;
+			}
+
+			assertEquals(teleports[i].getName(), restored[i].getName());
+			assertEquals(teleports[i].getChildIndex(), restored[i].getChildIndex());
+			assertEquals(teleports[i].getKeyShortcut(), restored[i].getKeyShortcut());
+			assertEquals(teleports[i].isAlt(), restored[i].isAlt());
+		}
+	}
+
+	@Test
+	public void testRestoreMisses() throws Exception
+	{
+		Teleport[] teleports = new Teleport[DEFINITIONS.length];
+		teleports[0] = new Teleport("Varrock", 3, "1", false);
+
+		this.cache.store(1L, teleports);
+		this.awaitPersistence();
+
+		// The labels have changed since the teleports were persisted
+		TeleportCache restoredCache = new TeleportCache(this.configManager, this.executor);
+		Teleport[] restored = new Teleport[DEFINITIONS.length];
+
+		assertFalse(restoredCache.restore(2L, restored, DEFINITIONS));
+		assertNull(restored[0]);
+		assertEquals(1, restoredCache.getMisses());
+
+		// Malformed teleports are left unread
+		this.configManager.setRSProfileConfiguration(ConfigCache.CFG_GROUP, CFG_KEY_TELEPORTS, "1\n0,x,0,1");
+		restoredCache = new TeleportCache(this.configManager, this.executor);
+
+		assertFalse(restoredCache.restore(1L, restored, DEFINITIONS));
+
+		this.configManager.setRSProfileConfiguration(ConfigCache.CFG_GROUP, CFG_KEY_TELEPORTS, "1\n9,0,0,1");
+		restoredCache = new TeleportCache(this.configManager, this.executor);
+
+		assertFalse(restoredCache.restore(1L, restored, DEFINITIONS));
+		assertNull(restored[0]);
+	}
+
+	/**
+	 * Waits for the teleports stored to be persisted on the executor
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	private void awaitPersistence() throws InterruptedException
+	{
+		this.executor.shutdown();
+		assertTrue(this.executor.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	private static String label(String key, String name)
+	{
+		return String.format(LABEL_FORMAT, key, name);
+	}
+
+	private static long fingerprint(String[] primaryLabels, String[] alternateLabels)
+	{
+		return TeleportCache.fingerprint(createLabelList(primaryLabels), createLabelList(alternateLabels), DEFINITIONS);
+	}
+
+	/**
+	 * Creates a widget whose children hold the given labels
+	 * @param labels the text of each label
+	 * @return the parent widget
+	 */
+	private static Widget createLabelList(String[] labels)
+	{
+		Widget parent = FakeWidget.create(0, WidgetType.LAYER);
+
+		for (String label : labels)
+			FakeWidget.of(parent).addChild(WidgetType.TEXT, label);
+
+		return parent;
+	}
+}
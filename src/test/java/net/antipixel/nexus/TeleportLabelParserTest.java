@@ -0,0 +1,213 @@
+package net.antipixel.nexus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.antipixel.nexus.definition.DefinitionLoader;
+import net.antipixel.nexus.definition.TeleportDefinition;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the teleport label parser recognises exactly the same labels,
+ * keys and names as the regular expression it replaces
+ * @author Antipixel
+ */
+public class TeleportLabelParserTest
+{
+	private static final Pattern TELE_NAME_PATTERN = Pattern.compile("<col=ffffff>(\\S)</col> :  (.+)");
+
+	private static final int RANDOM_LABEL_COUNT = 200_000;
+
+	/* Fragments from which the labels are assembled, including near misses of each part */
+	private static final String[] PREFIXES = {
+		"<col=ffffff>", "<col=ffffff>", "<col=FFFFFF>", "<col=fffff>", "<col=ffffff",
+		"col=ffffff>", " <col=ffffff>", "<col=ffffff><col=ffffff>", ""
+	};
+
+	private static final String[] KEYS = {
+		"1", "9", "A", "z", "'", "<", "\u00e9", "\ud83d\ude00", "\ud83d", "\ude00",
+		" ", "\t", "\n", "\u000b", "\f", "\r", "\u00a0", "\u2028", "\u0085", "", "AB", "1 "
+	};
+
+	private static final String[] SUFFIXES = {
+		"</col> :  ", "</col> :  ", "</col> : ", "</col>:  ", "</col> :   ",
+		"</COL> :  ", "</col> ;  ", "</col>", ""
+	};
+
+	private static final String[] NAME_EXTRAS = {
+		"", " ", "  ", "'", "\t", "\n", "\r", "\r\n", "\u0085", "\u2028", "\u2029",
+		"\u00a0", "\ud83d\ude00", "\ud83d", "x", "</col>", "<col=ffffff>A</col> :  B"
+	};
+
+	private TeleportDefinition[] definitions;
+	private List<String> names;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		// Use the names of the teleports which are actually defined
+		this.definitions = Arrays.stream(DefinitionLoader.loadRegions("RegionDef.bin"))
+			.flatMap(regionDef -> Arrays.stream(regionDef.getTeleports()))
+			.toArray(TeleportDefinition[]::new);
+
+		this.names = new ArrayList<>();
+
+		for (TeleportDefinition definition : this.definitions)
+			this.names.add(definition.getName());
+	}
+
+	@Test
+	public void testDefinedTeleports()
+	{
+		TeleportLabelParser parser = new TeleportLabelParser();
+
+		for (int i = 0; i < this.definitions.length; i++)
+		{
+			String label = "<col=ffffff>" + (i % 10) + "</col> :  " + this.definitions[i].getName();
+
+			assertTrue(label, parser.scan(label));
+			assertEquals(label, String.valueOf(i % 10), parser.getKey(label));
+			assertEquals(label, i, parser.findTeleport(label, this.definitions));
+			assertTrue(label, parser.keyEquals(label, String.valueOf(i % 10)));
+			assertFalse(label, parser.keyEquals(label, "X"));
+		}
+	}
+
+	@Test
+	public void testLabelVariants()
+	{
+		TeleportLabelParser parser = new TeleportLabelParser();
+
+		// Every combination of the fragments, with a known name and with extras around it
+		for (String prefix : PREFIXES)
+			for (String key : KEYS)
+				for (String suffix : SUFFIXES)
+					for (String extra : NAME_EXTRAS)
+					{
+						this.assertParsedAsRegex(parser, prefix + key + suffix + extra);
+						this.assertParsedAsRegex(parser, prefix + key + suffix + "Varrock" + extra);
+						this.assertParsedAsRegex(parser, prefix + key + suffix + extra + "Varrock");
+					}
+	}
+
+	@Test
+	public void testRandomLabels()
+	{
+		TeleportLabelParser parser = new TeleportLabelParser();
+		Random random = new Random(0x4E455855L);
+
+		for (int i = 0; i < RANDOM_LABEL_COUNT; i++)
+			this.assertParsedAsRegex(parser, this.randomLabel(random));
+	}
+
+	/**
+	 * Assembles a label from random fragments, mostly well formed
+	 * @param random the random number generator
+	 * @return the label
+	 */
+	private String randomLabel(Random random)
+	{
+		StringBuilder label = new StringBuilder();
+
+		label.append(PREFIXES[random.nextInt(PREFIXES.length)]);
+		label.append(random.nextInt(4) == 0 ? randomChars(random, 1 + random.nextInt(2)) : KEYS[random.nextInt(KEYS.length)]);
+		label.append(SUFFIXES[random.nextInt(SUFFIXES.length)]);
+
+		// Mostly the name of a defined teleport, otherwise random text
+		if (random.nextInt(3) != 0)
+			label.append(this.names.get(random.nextInt(this.names.size())));
+		else
+			label.append(randomChars(random, random.nextInt(12)));
+
+		if (random.nextInt(4) == 0)
+			label.append(NAME_EXTRAS[random.nextInt(NAME_EXTRAS.length)]);
+
+		return label.toString();
+	}
+
+	/**
+	 * Creates a string of random characters, biased
+	 * towards whitespace and other interesting characters
+	 * @param random the random number generator
+	 * @param length the number of chars
+	 * @return the random string
+	 */
+	private static String randomChars(Random random, int length)
+	{
+		StringBuilder chars = new StringBuilder();
+
+		for (int i = 0; i < length; i++)
+		{
+			switch (random.nextInt(4))
+			{
+				case 0:
+					chars.append((char) random.nextInt(0x30));
+					break;
+				case 1:
+					chars.append((char) (0x20 + random.nextInt(0x5F)));
+					break;
+				case 2:
+					chars.append(KEYS[random.nextInt(KEYS.length)]);
+					break;
+				default:
+					chars.append((char) random.nextInt(Character.MAX_VALUE + 1));
+			}
+		}
+
+		return chars.toString();
+	}
+
+	/**
+	 * Checks that the parser agrees with the regular expression on the
+	 * given label, as to whether it matches, and if so the key and name
+	 * @param parser the parser
+	 * @param label the label text
+	 */
+	private void assertParsedAsRegex(TeleportLabelParser parser, String label)
+	{
+		Matcher matcher = TELE_NAME_PATTERN.matcher(label);
+		boolean matches = matcher.matches();
+		boolean scanned = parser.scan(label);
+
+		// Only escape the label for the message upon failure, as it's slow
+		if (matches != scanned)
+			assertEquals(escape(label), matches, scanned);
+
+		if (!matches)
+			return;
+
+		String message = escape(label);
+		assertEquals(message, matcher.group(1), parser.getKey(label));
+		assertEquals(message, matcher.group(1), label.substring(parser.getKeyStart(), parser.getKeyEnd()));
+		assertEquals(message, matcher.group(2), label.substring(parser.getNameStart()));
+		assertTrue(message, parser.keyEquals(label, matcher.group(1)));
+		assertEquals(message, this.names.indexOf(matcher.group(2)), parser.findTeleport(label, this.definitions));
+	}
+
+	/**
+	 * Escapes the non-printable characters of a label, for the assertion messages
+	 * @param label the label text
+	 * @return the escaped label
+	 */
+	private static String escape(String label)
+	{
+		StringBuilder escaped = new StringBuilder();
+
+		for (char c : label.toCharArray())
+		{
+			if (c < 0x20 || c > 0x7E)
+				escaped.append(String.format("\\u%04x", (int) c));
+			else
+				escaped.append(c);
+		}
+
+		return escaped.toString();
+	}
+}
@@ -0,0 +1,121 @@
+package net.antipixel.nexus.diagnostics;
+
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the tracker follows a teleport from being selected, through
+ * its key script being run and the menu being closed, to the next game tick,
+ * and that a teleport selected from the map is only recorded once its
+ * key script has run
+ * @author Antipixel
+ */
+public class TeleportLatencyTrackerTest
+{
+	private static final long SELECTED_AGO = TimeUnit.MILLISECONDS.toNanos(5);
+
+	private TeleportLatencyTracker tracker;
+
+	@Before
+	public void setUp()
+	{
+		this.tracker = new TeleportLatencyTracker();
+		this.tracker.setEnabled(true);
+	}
+
+	@Test
+	public void testTracksTeleportUntilGameTick()
+	{
+		this.tracker.selected(TeleportPath.LIST, System.nanoTime() - SELECTED_AGO);
+		this.tracker.frame();
+		this.tracker.frame();
+
+		// Nothing is recorded by a game tick before the menu has closed
+		this.tracker.gameTick();
+		assertTrue(this.tracker.isPending());
+		assertEquals(0, this.tracker.getTickLatency(TeleportPath.LIST).getCount());
+
+		assertTrue(this.tracker.interfaceClosed());
+		assertFalse(this.tracker.interfaceClosed());
+
+		// The frames after the menu has closed aren't counted
+		this.tracker.frame();
+		this.tracker.gameTick();
+
+		assertFalse(this.tracker.isPending());
+		assertEquals(1, this.tracker.getCloseLatency(TeleportPath.LIST).getCount());
+		assertEquals(1, this.tracker.getTickLatency(TeleportPath.LIST).getCount());
+		assertTrue(this.tracker.getCloseLatency(TeleportPath.LIST).getMax() >= SELECTED_AGO);
+		assertTrue(this.tracker.getTickLatency(TeleportPath.LIST).getMax()
+			>= this.tracker.getCloseLatency(TeleportPath.LIST).getMax());
+		assertEquals(2.0, this.tracker.getMeanFramesToClose(TeleportPath.LIST), 0.0);
+
+		// The teleport is also recorded over every path combined
+		assertEquals(1, this.tracker.getCloseLatency().getCount());
+		assertEquals(1, this.tracker.getTickLatency().getCount());
+		assertEquals(2.0, this.tracker.getMeanFramesToClose(), 0.0);
+		assertEquals(0, this.tracker.getCloseLatency(TeleportPath.MAP).getCount());
+	}
+
+	@Test
+	public void testMapTeleportClosedBeforeScriptIsIgnored()
+	{
+		this.tracker.selected(TeleportPath.MAP);
+		this.tracker.frame();
+
+		// Closing the menu before the key script has run, such as by switching modes
+		assertFalse(this.tracker.interfaceClosed());
+		this.tracker.gameTick();
+
+		assertTrue(this.tracker.isPending());
+		assertEquals(0, this.tracker.getCloseLatency(TeleportPath.MAP).getCount());
+		assertEquals(0, this.tracker.getTickLatency(TeleportPath.MAP).getCount());
+
+		// The teleport is recorded once the key script has run and the menu closes
+		this.tracker.frame();
+		this.tracker.scriptRun();
+		assertTrue(this.tracker.interfaceClosed());
+		this.tracker.gameTick();
+
+		assertFalse(this.tracker.isPending());
+		assertEquals(1, this.tracker.getCloseLatency(TeleportPath.MAP).getCount());
+		assertEquals(1, this.tracker.getTickLatency(TeleportPath.MAP).getCount());
+		assertEquals(2.0, this.tracker.getMeanFramesToClose(TeleportPath.MAP), 0.0);
+	}
+
+	@Test
+	public void testLaterSelectionReplacesEarlier()
+	{
+		this.tracker.selected(TeleportPath.MAP);
+		this.tracker.frame();
+		this.tracker.selected(TeleportPath.SHORTCUT);
+
+		assertTrue(this.tracker.interfaceClosed());
+		this.tracker.gameTick();
+
+		assertEquals(0, this.tracker.getCloseLatency(TeleportPath.MAP).getCount());
+		assertEquals(1, this.tracker.getTickLatency(TeleportPath.SHORTCUT).getCount());
+		assertEquals(0.0, this.tracker.getMeanFramesToClose(TeleportPath.SHORTCUT), 0.0);
+	}
+
+	@Test
+	public void testCancelledAndDisabledRecordNothing()
+	{
+		this.tracker.selected(TeleportPath.LIST);
+		this.tracker.cancel();
+
+		assertFalse(this.tracker.isPending());
+		assertFalse(this.tracker.interfaceClosed());
+
+		this.tracker.setEnabled(false);
+		this.tracker.selected(TeleportPath.LIST);
+
+		assertFalse(this.tracker.isPending());
+		assertFalse(this.tracker.interfaceClosed());
+		assertEquals(0, this.tracker.getCloseLatency().getCount());
+	}
+}
@@ -0,0 +1,70 @@
+package net.antipixel.nexus.model;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the icon grid finds the icon beneath a point, including icons
+ * spanning the edges of the cells and icons overlapping one another, and
+ * that points outside of the map find no icon
+ * @author Antipixel
+ */
+public class IconGridTest
+{
+	private static final int MAP_WIDTH = 478;
+	private static final int MAP_HEIGHT = 272;
+	private static final int ICON_SIZE = 24;
+
+	/* Icon 1 overlaps icon 0, icon 2 spans the edge of the first two
+	   columns and overlaps icon 1, and icon 3 lies in the far corner */
+	private static final int[] ICON_X = {10, 20, 30, 454};
+	private static final int[] ICON_Y = {10, 20, 0, 248};
+
+	private IconGrid grid;
+
+	@Before
+	public void setUp()
+	{
+		this.grid = new IconGrid(MAP_WIDTH, MAP_HEIGHT, ICON_X, ICON_Y, ICON_SIZE);
+	}
+
+	@Test
+	public void testFindsIconAcrossCellEdges()
+	{
+		// Icon 2 spans the first two columns of cells
+		assertEquals(2, this.grid.find(31, 5));
+		assertEquals(2, this.grid.find(32, 5));
+		assertEquals(2, this.grid.find(53, 0));
+
+		// The right and bottom edges of an icon lie just outside of it
+		assertEquals(-1, this.grid.find(54, 5));
+		assertEquals(2, this.grid.find(40, 23));
+		assertEquals(-1, this.grid.find(50, 24));
+
+		// The icon in the partial cells at the far corner of the map
+		assertEquals(3, this.grid.find(454, 248));
+		assertEquals(3, this.grid.find(MAP_WIDTH - 1, MAP_HEIGHT - 1));
+	}
+
+	@Test
+	public void testOverlappingIconsFindLastDrawn()
+	{
+		assertEquals(0, this.grid.find(15, 15));
+		assertEquals(1, this.grid.find(21, 21));
+		assertEquals(1, this.grid.find(33, 33));
+		assertEquals(2, this.grid.find(35, 21));
+		assertEquals(-1, this.grid.find(5, 5));
+	}
+
+	@Test
+	public void testPointsOutsideOfMapFindNothing()
+	{
+		assertEquals(-1, this.grid.find(-1, 15));
+		assertEquals(-1, this.grid.find(15, -1));
+		assertEquals(-1, this.grid.find(MAP_WIDTH, MAP_HEIGHT - 1));
+		assertEquals(-1, this.grid.find(MAP_WIDTH + 10, 250));
+		assertEquals(-1, this.grid.find(460, MAP_HEIGHT + 20));
+		assertEquals(-1, this.grid.find(Integer.MAX_VALUE, Integer.MAX_VALUE));
+	}
+}
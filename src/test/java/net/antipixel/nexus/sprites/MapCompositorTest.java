@@ -0,0 +1,141 @@
+package net.antipixel.nexus.sprites;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import net.antipixel.nexus.FakeClient;
+import net.antipixel.nexus.ImmediateClientThread;
+import net.antipixel.nexus.definition.IconDefinition;
+import net.antipixel.nexus.definition.RegionDefinition;
+import net.antipixel.nexus.definition.TeleportDefinition;
+import net.antipixel.nexus.model.PageModel;
+import net.runelite.client.game.SpriteManager;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Checks that the composited maps are drawn once for each combination of
+ * available teleports, that the least recently used are removed from the
+ * sprite overrides once the cache is full, and that the composites still
+ * being drawn once the compositor is cleared are never installed
+ * @author Antipixel
+ */
+public class MapCompositorTest
+{
+	private static final int REGION_ID = 0;
+	private static final int TELEPORT_COUNT = 6;
+	private static final int MAX_CACHED_SPRITES = 32;
+
+	private FakeClient fakeClient;
+	private Map<Integer, ?> spriteOverrides;
+	private List<Runnable> drawTasks;
+	private List<Integer> installedRegions;
+	private PageModel model;
+	private MapCompositor compositor;
+
+	@Before
+	public void setUp()
+	{
+		this.fakeClient = new FakeClient();
+		this.spriteOverrides = this.fakeClient.getClient().getSpriteOverrides();
+		this.drawTasks = new ArrayList<>();
+		this.installedRegions = new ArrayList<>();
+
+		TeleportDefinition[] teleports = new TeleportDefinition[TELEPORT_COUNT];
+
+		for (int i = 0; i < TELEPORT_COUNT; i++)
+			teleports[i] = new TeleportDefinition("Teleport " + i, null, 20 + i * 40, 50, 0, 0);
+
+		RegionDefinition region = new RegionDefinition(REGION_ID, "Region", new IconDefinition(0, 0, 0, 0), 0, 0, teleports);
+		this.model = PageModel.build(new RegionDefinition[] {region}, i -> null, i -> null);
+
+		// The composites are drawn once the test runs the tasks queued for the executor
+		this.compositor = new MapCompositor(this.fakeClient.getClient(), new ImmediateClientThread(), this.drawTasks::add,
+			Mockito.mock(SpriteManager.class), new SpriteDefinition[0], new BufferedImage[0], this.installedRegions::add);
+	}
+
+	@Test
+	public void testCompositeDrawnOnce()
+	{
+		BitSet available = availability(0b101);
+
+		// Nothing is installed until the composite has been drawn
+		assertEquals(-1, this.compositor.getCompositeSprite(this.model, REGION_ID, available));
+		assertEquals(-1, this.compositor.getCompositeSprite(this.model, REGION_ID, available));
+		assertEquals(1, this.drawTasks.size());
+
+		this.runDrawTasks();
+
+		int spriteID = this.compositor.getCompositeSprite(this.model, REGION_ID, available);
+
+		assertNotEquals(-1, spriteID);
+		assertTrue(this.spriteOverrides.containsKey(spriteID));
+		assertEquals(1, this.compositor.getSpriteCount());
+		assertEquals(1, this.installedRegions.size());
+
+		// Preparing the installed composite draws nothing further
+		this.compositor.prepare(this.model, REGION_ID, available);
+		assertTrue(this.drawTasks.isEmpty());
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsed()
+	{
+		for (int i = 0; i < MAX_CACHED_SPRITES; i++)
+			this.compositor.prepare(this.model, REGION_ID, availability(i));
+
+		this.runDrawTasks();
+		assertEquals(MAX_CACHED_SPRITES, this.spriteOverrides.size());
+
+		// Use the first composite, leaving the second as the least recently used
+		int firstSprite = this.compositor.getCompositeSprite(this.model, REGION_ID, availability(0));
+		int secondSprite = this.compositor.getCompositeSprite(this.model, REGION_ID, availability(1));
+		this.compositor.getCompositeSprite(this.model, REGION_ID, availability(0));
+
+		for (int i = 2; i < MAX_CACHED_SPRITES; i++)
+			this.compositor.getCompositeSprite(this.model, REGION_ID, availability(i));
+
+		this.compositor.prepare(this.model, REGION_ID, availability(MAX_CACHED_SPRITES));
+		this.runDrawTasks();
+
+		assertEquals(MAX_CACHED_SPRITES, this.spriteOverrides.size());
+		assertEquals(MAX_CACHED_SPRITES, this.compositor.getSpriteCount());
+		assertTrue(this.spriteOverrides.containsKey(firstSprite));
+		assertFalse(this.spriteOverrides.containsKey(secondSprite));
+		assertEquals(-1, this.compositor.getCompositeSprite(this.model, REGION_ID, availability(1)));
+	}
+
+	@Test
+	public void testClearDiscardsPendingComposites()
+	{
+		this.compositor.prepare(this.model, REGION_ID, availability(0b11));
+		this.runDrawTasks();
+		this.compositor.prepare(this.model, REGION_ID, availability(0b10));
+
+		this.compositor.clear();
+		this.runDrawTasks();
+
+		assertTrue(this.spriteOverrides.isEmpty());
+		assertEquals(0, this.compositor.getSpriteCount());
+		assertEquals(1, this.installedRegions.size());
+	}
+
+	private void runDrawTasks()
+	{
+		List<Runnable> tasks = new ArrayList<>(this.drawTasks);
+		this.drawTasks.clear();
+		tasks.forEach(Runnable::run);
+	}
+
+	private static BitSet availability(int mask)
+	{
+		return BitSet.valueOf(new long[] {mask});
+	}
+}
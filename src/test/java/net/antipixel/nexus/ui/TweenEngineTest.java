@@ -0,0 +1,142 @@
+package net.antipixel.nexus.ui;
+
+import java.lang.management.ManagementFactory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the tween engine reaches its targets, and that advancing
+ * its animations allocates nothing. The components are left detached,
+ * so only the engine and the component state are exercised
+ * @author Antipixel
+ */
+public class TweenEngineTest
+{
+	private static final long NANOS_PER_MILLI = 1_000_000L;
+	private static final int COMPONENT_COUNT = 16;
+	private static final int LONG_DURATION_MILLIS = 60_000;
+	private static final int WARMUP_TICKS = 20_000;
+	private static final int MEASURED_TICKS = 10_000;
+
+	private TweenEngine engine;
+	private UIGraphic[] components;
+
+	@Before
+	public void setUp()
+	{
+		this.engine = new TweenEngine(COMPONENT_COUNT * 2);
+		this.components = new UIGraphic[COMPONENT_COUNT];
+
+		for (int i = 0; i < COMPONENT_COUNT; i++)
+		{
+			this.components[i] = new UIGraphic();
+			this.components[i].setOpacity(1.0f);
+		}
+	}
+
+	@Test
+	public void testReachesTarget()
+	{
+		UIGraphic component = this.components[0];
+
+		this.engine.animate(component, TweenEngine.PROPERTY_Y, 10, 100, TweenEngine.EASE_OUT_QUAD, 0);
+		this.engine.animate(component, TweenEngine.PROPERTY_OPACITY, 0.5f, 100, TweenEngine.EASE_LINEAR, 0);
+
+		// Halfway through, the ease-out curve should be ahead of the linear progress
+		this.engine.tick(50 * NANOS_PER_MILLI);
+		assertTrue(component.getY() > 5 && component.getY() < 10);
+		assertEquals(0.75f, component.getOpacity(), 0.01f);
+		assertFalse(this.engine.isIdle());
+
+		this.engine.tick(100 * NANOS_PER_MILLI);
+		assertEquals(10, component.getY());
+		assertEquals(0.5f, component.getOpacity(), 0.01f);
+		assertTrue(this.engine.isIdle());
+	}
+
+	@Test
+	public void testRetargetContinuesFromCurrentValue()
+	{
+		UIGraphic component = this.components[0];
+
+		this.engine.animate(component, TweenEngine.PROPERTY_Y, 100, 100, TweenEngine.EASE_LINEAR, 0);
+		this.engine.tick(50 * NANOS_PER_MILLI);
+
+		// Reverse the animation, which should start from where it got to
+		this.engine.animate(component, TweenEngine.PROPERTY_Y, 0, 100, TweenEngine.EASE_LINEAR, 50 * NANOS_PER_MILLI);
+		this.engine.tick(100 * NANOS_PER_MILLI);
+		assertEquals(25, component.getY());
+
+		this.engine.tick(150 * NANOS_PER_MILLI);
+		assertEquals(0, component.getY());
+		assertTrue(this.engine.isIdle());
+	}
+
+	@Test
+	public void testSetsTargetWhenFull()
+	{
+		TweenEngine smallEngine = new TweenEngine(1);
+
+		smallEngine.animate(this.components[0], TweenEngine.PROPERTY_Y, 10, 100, TweenEngine.EASE_LINEAR, 0);
+		smallEngine.animate(this.components[1], TweenEngine.PROPERTY_Y, 20, 100, TweenEngine.EASE_LINEAR, 0);
+
+		assertEquals(0, this.components[0].getY());
+		assertEquals(20, this.components[1].getY());
+	}
+
+	@Test
+	public void testTickAllocatesNothing()
+	{
+		com.sun.management.ThreadMXBean threadBean = getThreadBean();
+		Assume.assumeTrue(threadBean != null && threadBean.isThreadAllocatedMemorySupported()
+			&& threadBean.isThreadAllocatedMemoryEnabled());
+
+		long threadID = Thread.currentThread().getId();
+
+		// Start an animation of both properties of every component, long enough to outlast the ticks
+		for (UIGraphic component : this.components)
+		{
+			this.engine.animate(component, TweenEngine.PROPERTY_Y, 1000, LONG_DURATION_MILLIS, TweenEngine.EASE_IN_OUT_CUBIC, 0);
+			this.engine.animate(component, TweenEngine.PROPERTY_OPACITY, 0.0f, LONG_DURATION_MILLIS, TweenEngine.EASE_OUT_QUAD, 0);
+		}
+
+		// Let the ticks be compiled before measuring them
+		long now = 0;
+
+		for (int i = 0; i < WARMUP_TICKS; i++)
+			this.engine.tick(now += 1000);
+
+		// Measure the allocation of reading the counter itself, so it can be discounted
+		long before = threadBean.getThreadAllocatedBytes(threadID);
+		long overhead = threadBean.getThreadAllocatedBytes(threadID) - before;
+
+		before = threadBean.getThreadAllocatedBytes(threadID);
+
+		for (int i = 0; i < MEASURED_TICKS; i++)
+			this.engine.tick(now += 1000);
+
+		long allocated = threadBean.getThreadAllocatedBytes(threadID) - before - overhead;
+
+		assertFalse(this.engine.isIdle());
+		assertEquals("Bytes allocated over " + MEASURED_TICKS + " ticks", 0, Math.max(0, allocated));
+
+		// Once idle, ticking should do nothing at all
+		this.engine.clear();
+		this.engine.tick(now);
+		assertTrue(this.engine.isIdle());
+	}
+
+	private static com.sun.management.ThreadMXBean getThreadBean()
+	{
+		java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+		if (!(threadBean instanceof com.sun.management.ThreadMXBean))
+			return null;
+
+		return (com.sun.management.ThreadMXBean) threadBean;
+	}
+}
@@ -0,0 +1,108 @@
+package net.antipixel.nexus;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetType;
+
+/**
+ * An in-memory stand-in for the game client, used by the tests and benchmarks.
+ * Widgets are created upon first being requested, and varbits are held in a map
+ * @author Antipixel
+ */
+public class FakeClient implements InvocationHandler
+{
+	private final Client proxy;
+	private final Map<Integer, Widget> widgets;
+	private final Map<Integer, Integer> varbits;
+	private final Map<Integer, Object> spriteOverrides;
+
+	private int scriptsRun;
+
+	/**
+	 * Creates a new fake client
+	 */
+	public FakeClient()
+	{
+		this.widgets = new HashMap<>();
+		this.varbits = new HashMap<>();
+		this.spriteOverrides = new HashMap<>();
+		this.proxy = (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[] {Client.class}, this);
+	}
+
+	/**
+	 * Gets the client
+	 * @return the fake client
+	 */
+	public Client getClient()
+	{
+		return this.proxy;
+	}
+
+	/**
+	 * Gets the widget with the given packed ID, creating it if it doesn't yet exist
+	 * @param packedID the packed widget ID
+	 * @return the widget
+	 */
+	public Widget getWidget(int packedID)
+	{
+		return this.widgets.computeIfAbsent(packedID, id -> FakeWidget.create(id, WidgetType.LAYER));
+	}
+
+	/**
+	 * Sets the value of a varbit
+	 * @param varbit the varbit ID
+	 * @param value the value
+	 */
+	public void setVarbit(int varbit, int value)
+	{
+		this.varbits.put(varbit, value);
+	}
+
+	/**
+	 * Gets the number of scripts run through the client
+	 * @return the script count
+	 */
+	public int getScriptsRun()
+	{
+		return this.scriptsRun;
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args)
+	{
+		switch (method.getName())
+		{
+			case "getWidget":
+				// Only packed widget IDs are supported
+				if (args.length == 1 && args[0] instanceof Integer)
+					return this.getWidget((int) args[0]);
+				return null;
+			case "getVarbitValue":
+				return this.varbits.getOrDefault((int) args[0], 0);
+			case "runScript":
+				this.scriptsRun++;
+				return null;
+			case "isClientThread":
+				return true;
+			case "getGameState":
+				return GameState.LOGGED_IN;
+			case "getSpriteOverrides":
+			case "getWidgetSpriteOverrides":
+				return this.spriteOverrides;
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			case "toString":
+				return "FakeClient";
+		}
+
+		return FakeWidget.defaultValue(method.getReturnType(), proxy);
+	}
+}
@@ -0,0 +1,96 @@
+package net.antipixel.nexus;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import net.runelite.client.config.ConfigManager;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * An in-memory stand-in for the config manager, used by the tests and benchmarks.
+ * Holds both the configuration and that of the RuneScape profile logged into,
+ * should there be one, all other methods returning the default value for their return type
+ * @author Antipixel
+ */
+public class FakeConfigManager implements Answer<Object>
+{
+	private final ConfigManager configManager;
+	private final Map<String, Object> configuration;
+	private final Map<String, Object> profileConfiguration;
+
+	private String profileKey;
+
+	/**
+	 * Creates a new fake config manager, which isn't logged into any profile
+	 */
+	public FakeConfigManager()
+	{
+		this.configuration = new HashMap<>();
+		this.profileConfiguration = new HashMap<>();
+
+		// Stub only, so that invocations aren't recorded for verification
+		this.configManager = Mockito.mock(ConfigManager.class, Mockito.withSettings().stubOnly().defaultAnswer(this));
+	}
+
+	/**
+	 * Gets the config manager
+	 * @return the fake config manager
+	 */
+	public ConfigManager getConfigManager()
+	{
+		return this.configManager;
+	}
+
+	/**
+	 * Logs into a RuneScape profile, whose configuration is kept across logins
+	 * @param profileKey the key of the profile, or null to log out
+	 */
+	public void setProfileKey(String profileKey)
+	{
+		this.profileKey = profileKey;
+	}
+
+	@Override
+	public Object answer(InvocationOnMock invocation) throws Throwable
+	{
+		Method method = invocation.getMethod();
+		Object[] args = invocation.getArguments();
+
+		if (method.getName().equals("getRSProfileKey"))
+			return this.profileKey;
+
+		if (args.length < 2 || !(args[0] instanceof String) || !(args[1] instanceof String))
+			return Mockito.RETURNS_DEFAULTS.answer(invocation);
+
+		String key = args[0] + "." + args[1];
+
+		switch (method.getName())
+		{
+			case "setConfiguration":
+				this.configuration.put(key, args[2]);
+				return null;
+			case "unsetConfiguration":
+				this.configuration.remove(key);
+				return null;
+			case "getConfiguration":
+				return toReturnType(method, this.configuration.get(key));
+			case "setRSProfileConfiguration":
+				this.profileConfiguration.put(key, args[2]);
+				return null;
+			case "unsetRSProfileConfiguration":
+				this.profileConfiguration.remove(key);
+				return null;
+			case "getRSProfileConfiguration":
+				return toReturnType(method, this.profileConfiguration.get(key));
+		}
+
+		return Mockito.RETURNS_DEFAULTS.answer(invocation);
+	}
+
+	private static Object toReturnType(Method method, Object value)
+	{
+		return (value != null && method.getReturnType() == String.class) ? value.toString() : value;
+	}
+}
@@ -0,0 +1,242 @@
+package net.antipixel.nexus;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import net.runelite.api.widgets.Widget;
+
+/**
+ * An in-memory stand-in for a game widget, used by the tests and benchmarks
+ * in place of the client's own widgets. Only the state the plugin relies upon
+ * is kept, all other methods returning the default value for their return type
+ * @author Antipixel
+ */
+public class FakeWidget implements InvocationHandler
+{
+	private static final Widget[] NO_CHILDREN = new Widget[0];
+
+	private final Widget proxy;
+	private final int id;
+	private final int type;
+	private final int index;
+
+	private List<Widget> children;
+	private Widget[] childArray;
+
+	private String text;
+	private String name;
+	private boolean hidden;
+	private boolean hasListener;
+	private int spriteId;
+	private int opacity;
+	private int x;
+	private int y;
+	private int width;
+	private int height;
+
+	/**
+	 * Creates a new fake widget
+	 * @param id the packed widget ID
+	 * @param type the widget type
+	 * @param index the child index of the widget within its parent
+	 */
+	private FakeWidget(int id, int type, int index)
+	{
+		this.id = id;
+		this.type = type;
+		this.index = index;
+		this.children = new ArrayList<>();
+		this.childArray = NO_CHILDREN;
+		this.proxy = (Widget) Proxy.newProxyInstance(Widget.class.getClassLoader(), new Class<?>[] {Widget.class}, this);
+	}
+
+	/**
+	 * Creates a new fake widget
+	 * @param id the packed widget ID
+	 * @param type the widget type
+	 * @return the widget
+	 */
+	public static Widget create(int id, int type)
+	{
+		return new FakeWidget(id, type, -1).proxy;
+	}
+
+	/**
+	 * Gets the handler behind a fake widget
+	 * @param widget the fake widget
+	 * @return the handler holding the widgets state
+	 */
+	public static FakeWidget of(Widget widget)
+	{
+		return (FakeWidget) Proxy.getInvocationHandler(widget);
+	}
+
+	/**
+	 * Adds a child to the widget, as the client does when populating an interface
+	 * @param type the type of the child widget
+	 * @param text the text content of the child
+	 * @return the child widget
+	 */
+	public Widget addChild(int type, String text)
+	{
+		Widget child = this.createChild(type);
+		of(child).text = text;
+		return child;
+	}
+
+	/**
+	 * Removes all of the children of the widget, as
+	 * happens when the client reloads an interface
+	 */
+	public void clearChildren()
+	{
+		this.children.clear();
+		this.childArray = NO_CHILDREN;
+	}
+
+	/**
+	 * Checks whether the widget has been flagged as having listeners,
+	 * for which the client would run scripts as the mouse moves over it
+	 * @return true if the widget has listeners
+	 */
+	public boolean hasListener()
+	{
+		return this.hasListener;
+	}
+
+	/**
+	 * Gets the number of children of the widget
+	 * @return the child count
+	 */
+	public int getChildCount()
+	{
+		return this.children.size();
+	}
+
+	private Widget createChild(int type)
+	{
+		Widget child = new FakeWidget(this.id, type, this.children.size()).proxy;
+		this.children.add(child);
+		this.childArray = null;
+		return child;
+	}
+
+	private Widget[] getChildren()
+	{
+		if (this.childArray == null)
+			this.childArray = this.children.toArray(NO_CHILDREN);
+
+		return this.childArray;
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args)
+	{
+		switch (method.getName())
+		{
+			case "getId":
+				return this.id;
+			case "getType":
+				return this.type;
+			case "getIndex":
+				return this.index;
+			case "createChild":
+				return this.createChild((int) args[1]);
+			case "getDynamicChildren":
+			case "getChildren":
+				return this.getChildren();
+			case "deleteAllChildren":
+				this.clearChildren();
+				return null;
+			case "getText":
+				return this.text;
+			case "setText":
+				this.text = (String) args[0];
+				break;
+			case "getName":
+				return this.name;
+			case "setName":
+				this.name = (String) args[0];
+				break;
+			case "isHidden":
+			case "isSelfHidden":
+				return this.hidden;
+			case "setHidden":
+				this.hidden = (boolean) args[0];
+				break;
+			case "setHasListener":
+				this.hasListener = (boolean) args[0];
+				break;
+			case "getSpriteId":
+				return this.spriteId;
+			case "setSpriteId":
+				this.spriteId = (int) args[0];
+				break;
+			case "getOpacity":
+				return this.opacity;
+			case "setOpacity":
+				this.opacity = (int) args[0];
+				break;
+			case "getOriginalX":
+				return this.x;
+			case "setOriginalX":
+				this.x = (int) args[0];
+				break;
+			case "getOriginalY":
+				return this.y;
+			case "setOriginalY":
+				this.y = (int) args[0];
+				break;
+			case "getOriginalWidth":
+				return this.width;
+			case "setOriginalWidth":
+				this.width = (int) args[0];
+				break;
+			case "getOriginalHeight":
+				return this.height;
+			case "setOriginalHeight":
+				this.height = (int) args[0];
+				break;
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			case "toString":
+				return "FakeWidget[" + Integer.toHexString(this.id) + ":" + this.index + "]";
+		}
+
+		return defaultValue(method.getReturnType(), proxy);
+	}
+
+	/**
+	 * Gets the value returned by methods which aren't backed by any state.
+	 * Setters which return the widget for chaining are given the widget itself
+	 * @param returnType the return type of the method
+	 * @param proxy the widget
+	 * @return the default value
+	 */
+	static Object defaultValue(Class<?> returnType, Object proxy)
+	{
+		if (returnType.isInstance(proxy))
+			return proxy;
+		if (returnType == boolean.class)
+			return false;
+		if (returnType == int.class)
+			return 0;
+		if (returnType == long.class)
+			return 0L;
+		if (returnType == float.class)
+			return 0f;
+		if (returnType == double.class)
+			return 0d;
+		if (returnType == short.class)
+			return (short) 0;
+		if (returnType == byte.class)
+			return (byte) 0;
+		if (returnType == char.class)
+			return (char) 0;
+		return null;
+	}
+}
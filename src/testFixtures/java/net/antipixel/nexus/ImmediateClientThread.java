@@ -0,0 +1,23 @@
+package net.antipixel.nexus;
+
+import net.runelite.client.callback.ClientThread;
+
+/**
+ * A client thread which runs everything immediately on the calling thread,
+ * used by the tests and benchmarks in place of the client's own thread
+ * @author Antipixel
+ */
+public class ImmediateClientThread extends ClientThread
+{
+	@Override
+	public void invoke(Runnable r)
+	{
+		r.run();
+	}
+
+	@Override
+	public void invokeLater(Runnable r)
+	{
+		r.run();
+	}
+}